@@ -0,0 +1,36 @@
+package org.example.bench;
+
+import org.example.Server;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ContentTypeBenchmark {
+    private static final String[] PATHS = {
+            "./things/miata.gif", "./things/miata.png", "./hello/index.html", "./things/miata.txt",
+            "./docs/report.PDF", "./archive.tar.gz", "./README", "./scripts/app.js"
+    };
+
+    private Server server;
+
+    @Setup
+    public void setup() {
+        server = new Server();
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.getResponseScheduler().shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(8)
+    public void getContentType(Blackhole blackhole) {
+        for (var path : PATHS)
+            blackhole.consume(server.getContentType(path));
+    }
+}
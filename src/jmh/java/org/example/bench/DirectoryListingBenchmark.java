@@ -0,0 +1,59 @@
+package org.example.bench;
+
+import org.example.DirectoryListingCache;
+import org.example.Server;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DirectoryListingBenchmark {
+    @Param({"10", "1000", "100000"})
+    public int entries;
+
+    private Path root;
+    private File directory;
+    private Server server;
+    private DirectoryListingCache uncached;
+
+    @Setup
+    public void setup() throws IOException {
+        root = Files.createTempDirectory("listing-bench");
+        var listed = Files.createDirectory(root.resolve("entries"));
+        for (int i = 0; i < entries; i++)
+            Files.createFile(listed.resolve("file-" + i + ".txt"));
+        directory = listed.toFile();
+
+        server = new Server();
+        server.parseArgs(new String[]{"-r", root.toString()});
+        uncached = new DirectoryListingCache(root, 1000, 1);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        server.getResponseScheduler().shutdown();
+        server.getDirectoryListingCache().close();
+        uncached.close();
+        try (var paths = Files.walk(root)) {
+            for (var path : paths.sorted(Comparator.reverseOrder()).toList())
+                Files.delete(path);
+        }
+    }
+
+    @Benchmark
+    public String buildDirectoryListing() throws IOException {
+        return server.buildDirectoryListing(directory);
+    }
+
+    @Benchmark
+    public byte[] renderUncached() throws IOException {
+        return uncached.render(directory.toPath(), null);
+    }
+}
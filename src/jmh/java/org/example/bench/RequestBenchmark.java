@@ -0,0 +1,65 @@
+package org.example.bench;
+
+import org.example.Request;
+import org.example.RequestParser;
+import org.example.Server;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RequestBenchmark {
+    private static final String REQUEST = """
+            GET /things/miata.gif?size=large HTTP/1.1\r
+            Host: localhost:8080\r
+            User-Agent: Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7)\r
+            Accept: text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8\r
+            Accept-Encoding: gzip, deflate\r
+            Accept-Language: en-US,en;q=0.5\r
+            Connection: keep-alive\r
+            \r
+            """;
+
+    private Server server;
+    private RequestParser parser;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        server = new Server();
+        parser = new RequestParser();
+        bytes = REQUEST.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.getResponseScheduler().shutdown();
+    }
+
+    @Benchmark
+    public Object parseRequest() {
+        return server.parseRequest(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public int requestParser() throws IOException {
+        parser.reset();
+        parser.parse(bytes, 0, bytes.length);
+        return parser.indexOfHeader("Connection");
+    }
+
+    @Benchmark
+    public String getRequest() throws IOException {
+        return server.getRequest(new ByteArrayInputStream(bytes));
+    }
+
+    @Benchmark
+    public Request readRequest() throws IOException {
+        return server.readRequest(new ByteArrayInputStream(bytes));
+    }
+}
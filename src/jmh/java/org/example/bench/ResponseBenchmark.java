@@ -0,0 +1,43 @@
+package org.example.bench;
+
+import org.example.Server;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResponseBenchmark {
+    private static final Map<String, String> TARGETS = Map.of(
+            "static", "/things/miata.txt",
+            "index", "/hello",
+            "listing", "/listing/things",
+            "template", "/form?foo=1&bar=2");
+
+    @Param({"static", "index", "listing", "template"})
+    public String route;
+
+    private Server server;
+    private String request;
+
+    @Setup
+    public void setup() throws IOException {
+        server = new Server();
+        server.parseArgs(new String[]{"-r", System.getProperty("bench.root", ".")});
+        request = "GET " + TARGETS.get(route) + " HTTP/1.1\r\nHost: localhost\r\n\r\n";
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        server.getResponseScheduler().shutdown();
+        server.getDirectoryListingCache().close();
+    }
+
+    @Benchmark
+    public byte[] getResponse() throws IOException, InterruptedException {
+        return server.getResponse(request);
+    }
+}
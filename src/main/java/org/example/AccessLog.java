@@ -0,0 +1,232 @@
+package org.example;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+public class AccessLog implements AutoCloseable {
+    public static final String DROP = "drop";
+    public static final String BLOCK = "block";
+    private static final int BATCH_SIZE = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long BLOCKED_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final Path file;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private final boolean isBlocking;
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder rotations = new LongAdder();
+    private final Thread writer;
+    private volatile boolean isRunning = true;
+    private OutputStream out;
+    private long fileBytes;
+
+    public AccessLog(Path file, int capacity, long maxFileBytes, int maxFiles, String overflowPolicy) throws IOException {
+        if (!Objects.equals(DROP, overflowPolicy) && !Objects.equals(BLOCK, overflowPolicy))
+            throw new IllegalArgumentException("Unknown access log overflow policy: " + overflowPolicy);
+
+        this.file = file.toAbsolutePath();
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = maxFiles;
+        this.isBlocking = Objects.equals(BLOCK, overflowPolicy);
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.slots = new Slot[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++)
+            slots[i] = new Slot(i);
+
+        var parent = this.file.getParent();
+        if (parent != null)
+            Files.createDirectories(parent);
+        openFile();
+        writer = new Thread(this::drain, "access-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public boolean log(String method, String path, String status, long bytes, long durationNanos, String client) {
+        while (true) {
+            long position = tail.get();
+            var slot = slots[(int) position & mask];
+            long difference = slot.sequence - position;
+            if (difference == 0) {
+                if (!tail.compareAndSet(position, position + 1))
+                    continue;
+                slot.time = System.currentTimeMillis();
+                slot.method = method;
+                slot.path = path;
+                slot.status = status;
+                slot.bytes = bytes;
+                slot.durationNanos = durationNanos;
+                slot.client = client;
+                slot.sequence = position + 1;
+                return true;
+            }
+            if (difference < 0) {
+                if (!isBlocking || !isRunning) {
+                    dropped.increment();
+                    return false;
+                }
+                LockSupport.unpark(writer);
+                LockSupport.parkNanos(BLOCKED_PARK_NANOS);
+            }
+        }
+    }
+
+    private void drain() {
+        var batch = new StringBuilder(BATCH_SIZE * 128);
+        while (true) {
+            var isStopping = !isRunning;
+            int count = takeBatch(batch);
+            if (count > 0) {
+                writeBatch(batch, count);
+                batch.setLength(0);
+            } else if (isStopping) {
+                break;
+            } else {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+        closeFile();
+    }
+
+    private int takeBatch(StringBuilder batch) {
+        int count = 0;
+        while (count < BATCH_SIZE) {
+            var slot = slots[(int) head & mask];
+            if (slot.sequence != head + 1)
+                break;
+
+            append(batch, slot);
+            slot.method = null;
+            slot.path = null;
+            slot.status = null;
+            slot.client = null;
+            slot.sequence = head + slots.length;
+            head++;
+            count++;
+        }
+        return count;
+    }
+
+    private static void append(StringBuilder batch, Slot slot) {
+        batch.append("time=").append(Instant.ofEpochMilli(slot.time))
+                .append(" client=").append(slot.client)
+                .append(" method=").append(slot.method)
+                .append(" path=\"").append(slot.path.replace("\"", "%22")).append('"')
+                .append(" status=").append(statusCodeOf(slot.status))
+                .append(" bytes=").append(slot.bytes)
+                .append(" duration_us=").append(slot.durationNanos / 1000)
+                .append('\n');
+    }
+
+    private static String statusCodeOf(String status) {
+        int space = status.indexOf(' ');
+        return space == -1 ? status : status.substring(0, space);
+    }
+
+    private void writeBatch(StringBuilder batch, int count) {
+        var bytes = batch.toString().getBytes(StandardCharsets.UTF_8);
+        try {
+            if (fileBytes > 0 && fileBytes + bytes.length > maxFileBytes)
+                rotate();
+            out.write(bytes);
+            out.flush();
+            fileBytes += bytes.length;
+            written.add(count);
+        } catch (IOException ioe) {
+            System.out.println(ioe.getMessage());
+        }
+    }
+
+    private void rotate() throws IOException {
+        closeFile();
+        Files.deleteIfExists(rotatedFile(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            if (Files.exists(rotatedFile(i)))
+                Files.move(rotatedFile(i), rotatedFile(i + 1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (maxFiles > 0)
+            Files.move(file, rotatedFile(1), StandardCopyOption.REPLACE_EXISTING);
+        else
+            Files.deleteIfExists(file);
+        rotations.increment();
+        openFile();
+    }
+
+    private Path rotatedFile(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    private void openFile() throws IOException {
+        out = new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND), 64 * 1024);
+        fileBytes = Files.size(file);
+    }
+
+    private void closeFile() {
+        try {
+            out.close();
+        } catch (IOException ioe) {
+            System.out.println(ioe.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        isRunning = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    public long getRotationCount() {
+        return rotations.sum();
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    private static class Slot {
+        private volatile long sequence;
+        private long time;
+        private String method;
+        private String path;
+        private String status;
+        private long bytes;
+        private long durationNanos;
+        private String client;
+
+        private Slot(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.example;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+public interface AsyncHandler extends Handler {
+    CompletableFuture<Response> handleAsync(Request request, Map<String, String> parameters) throws IOException;
+
+    default Response handle(Request request, Map<String, String> parameters) throws IOException, InterruptedException {
+        try {
+            return handleAsync(request, parameters).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioe)
+                throw ioe;
+            if (e.getCause() instanceof RuntimeException re)
+                throw re;
+            throw new IOException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.example;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+public class BodyInputStream extends FilterInputStream {
+    private long remaining;
+
+    public BodyInputStream(InputStream in, long contentLength) {
+        super(in);
+        this.remaining = contentLength;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (remaining <= 0)
+            return -1;
+
+        int b = in.read();
+        if (b == -1)
+            throw new IOException("Request body ended " + remaining + " bytes early");
+        remaining--;
+        return b;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (remaining <= 0)
+            return -1;
+
+        int bytesRead = in.read(bytes, offset, (int) Math.min(length, remaining));
+        if (bytesRead == -1)
+            throw new IOException("Request body ended " + remaining + " bytes early");
+        remaining -= bytesRead;
+        return bytesRead;
+    }
+
+    @Override
+    public long skip(long count) throws IOException {
+        long skipped = in.skip(Math.min(count, remaining));
+        remaining -= skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(in.available(), remaining);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        var discard = new byte[8192];
+        while (read(discard, 0, discard.length) != -1)
+            continue;
+    }
+}
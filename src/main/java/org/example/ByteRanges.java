@@ -0,0 +1,111 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class ByteRanges {
+    public static final int MAX_RANGES = 16;
+    private static final String CLRF = "\r\n";
+
+    private ByteRanges() {}
+
+    public static List<Range> parse(String rangeHeader, long length) {
+        var separator = rangeHeader.indexOf('=');
+        if (separator < 0 || !rangeHeader.substring(0, separator).trim().equalsIgnoreCase("bytes"))
+            return null;
+
+        var specs = rangeHeader.substring(separator + 1).split(",");
+        if (specs.length > MAX_RANGES)
+            return null;
+
+        var ranges = new ArrayList<Range>();
+        for (var spec : specs) {
+            var dash = spec.indexOf('-');
+            if (dash < 0)
+                return null;
+            var first = spec.substring(0, dash).trim();
+            var last = spec.substring(dash + 1).trim();
+
+            try {
+                if (first.isEmpty()) {
+                    var suffixLength = parsePosition(last);
+                    if (suffixLength > 0 && length > 0)
+                        ranges.add(new Range(Math.max(0, length - suffixLength), length - 1));
+                    continue;
+                }
+
+                var start = parsePosition(first);
+                var end = last.isEmpty() ? Long.MAX_VALUE : parsePosition(last);
+                if (end < start)
+                    return null;
+                if (start < length)
+                    ranges.add(new Range(start, Math.min(end, length - 1)));
+            } catch (NumberFormatException nfe) {
+                return null;
+            }
+        }
+
+        return ranges;
+    }
+
+    private static long parsePosition(String value) {
+        if (value.isEmpty() || !value.chars().allMatch(Character::isDigit))
+            throw new NumberFormatException("Invalid byte position: " + value);
+        return Long.parseLong(value);
+    }
+
+    public static boolean isSliceable(Response.Body body) {
+        return body instanceof Response.Bytes || body instanceof Response.FileRegion;
+    }
+
+    public static Response.Body slice(Response.Body body, Range range) {
+        if (body instanceof Response.Bytes bytes)
+            return new Response.Bytes(bytes.content(), bytes.offset() + (int) range.start(), (int) range.length());
+        if (body instanceof Response.FileRegion region)
+            return new Response.FileRegion(region.file(), region.position() + range.start(), range.length());
+        throw new IllegalArgumentException("Body cannot be sliced: " + body.getClass().getSimpleName());
+    }
+
+    public static Response partial(Response response, List<Range> ranges) {
+        var length = response.getContentLength();
+        var body = response.getBody();
+        if (ranges.size() == 1) {
+            var range = ranges.get(0);
+            return response.withBody("206 Partial Content", response.getContentType(), slice(body, range))
+                    .header("Content-Range", range.contentRange(length));
+        }
+
+        var boundary = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        var partType = response.getContentType().trim();
+        var contentType = "Content-Type: multipart/byteranges; boundary=" + boundary + CLRF;
+        return response.withBody("206 Partial Content", contentType, new Response.Generated(out -> {
+            for (var range : ranges) {
+                var partHead = new StringBuilder();
+                partHead.append(CLRF).append("--").append(boundary).append(CLRF);
+                if (!partType.isEmpty())
+                    partHead.append(partType).append(CLRF);
+                partHead.append("Content-Range: ").append(range.contentRange(length)).append(CLRF);
+                partHead.append(CLRF);
+                out.write(partHead.toString().getBytes());
+                slice(body, range).writeTo(out);
+            }
+            out.write((CLRF + "--" + boundary + "--" + CLRF).getBytes());
+        }));
+    }
+
+    public static Response notSatisfiable(Response response) {
+        return response.withBody("416 Range Not Satisfiable", "", new Response.Bytes(new byte[0]))
+                .header("Content-Range", "bytes */" + response.getContentLength());
+    }
+
+    public record Range(long start, long end) {
+        public long length() {
+            return end - start + 1;
+        }
+
+        public String contentRange(long totalLength) {
+            return "bytes " + start + "-" + end + "/" + totalLength;
+        }
+    }
+}
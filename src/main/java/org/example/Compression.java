@@ -0,0 +1,86 @@
+package org.example;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.Set;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class Compression {
+    public static final int MIN_COMPRESSIBLE_SIZE = 256;
+    private static final Set<String> COMPRESSIBLE_TYPES = Set.of(
+            "application/javascript",
+            "application/json",
+            "application/xml",
+            "application/xhtml+xml",
+            "image/svg+xml");
+
+    private Compression() {}
+
+    public static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null)
+            return null;
+
+        double gzip = -1;
+        double deflate = -1;
+        double wildcard = -1;
+
+        for (var token : acceptEncoding.split(",")) {
+            var parts = token.trim().split(";");
+            var coding = parts[0].trim().toLowerCase();
+            var quality = 1.0;
+
+            for (int i = 1; i < parts.length; i++) {
+                var parameter = parts[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException nfe) {
+                        quality = 0;
+                    }
+                }
+            }
+
+            if (Objects.equals("gzip", coding) || Objects.equals("x-gzip", coding))
+                gzip = quality;
+            else if (Objects.equals("deflate", coding))
+                deflate = quality;
+            else if (Objects.equals("*", coding))
+                wildcard = quality;
+        }
+
+        if (gzip < 0)
+            gzip = wildcard;
+        if (deflate < 0)
+            deflate = wildcard;
+
+        if (gzip > 0 && gzip >= deflate)
+            return "gzip";
+        if (deflate > 0)
+            return "deflate";
+        return null;
+    }
+
+    public static boolean isCompressible(String contentType) {
+        var mimeType = contentType.replace("Content-Type:", "").split(";", 2)[0].trim().toLowerCase();
+        return mimeType.startsWith("text/") || COMPRESSIBLE_TYPES.contains(mimeType);
+    }
+
+    public static DeflaterOutputStream compressingStream(OutputStream out, String encoding) throws IOException {
+        if (Objects.equals("gzip", encoding))
+            return new GZIPOutputStream(out, 8192);
+        if (Objects.equals("deflate", encoding))
+            return new DeflaterOutputStream(out);
+        throw new IllegalArgumentException("Unsupported content encoding: " + encoding);
+    }
+
+    public static byte[] compress(byte[] content, String encoding) throws IOException {
+        var out = new ByteArrayOutputStream(content.length / 2 + 64);
+        try (var compressor = compressingStream(out, encoding)) {
+            compressor.write(content);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,133 @@
+package org.example;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class ConcurrencyLimiter {
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+    private static final int INITIAL_ADAPTIVE_LIMIT = 64;
+    private static final int MIN_LIMIT = 1;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double LATENCY_TOLERANCE = 2.0;
+    private static final long MIN_LATENCY_THRESHOLD = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final int WINDOW_SAMPLES = 500;
+    private static final double BASELINE_DRIFT = 1.1;
+
+    private final int maxLimit;
+    private final boolean isAdaptive;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final ReentrantLock adjusting = new ReentrantLock();
+    private volatile int limit;
+    private double adaptiveLimit;
+    private volatile long baselineLatency;
+    private long windowMinLatency = Long.MAX_VALUE;
+    private int windowSamples;
+    private int samplesSinceBackoff;
+
+    private ConcurrencyLimiter(int maxLimit, boolean isAdaptive) {
+        this.maxLimit = Math.max(MIN_LIMIT, maxLimit);
+        this.isAdaptive = isAdaptive;
+        this.adaptiveLimit = isAdaptive ? Math.min(this.maxLimit, INITIAL_ADAPTIVE_LIMIT) : this.maxLimit;
+        this.limit = (int) adaptiveLimit;
+    }
+
+    public static ConcurrencyLimiter fixed(int maxLimit) {
+        return new ConcurrencyLimiter(maxLimit, false);
+    }
+
+    public static ConcurrencyLimiter adaptive(int maxLimit) {
+        return new ConcurrencyLimiter(maxLimit, true);
+    }
+
+    public static ConcurrencyLimiter of(String mode, int maxLimit) {
+        if (Objects.equals("fixed", mode))
+            return fixed(maxLimit);
+        if (Objects.equals("aimd", mode))
+            return adaptive(maxLimit);
+        throw new IllegalArgumentException("Unknown concurrency limiter: " + mode);
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1))
+                return true;
+        }
+    }
+
+    public boolean isSaturated() {
+        return inFlight.get() >= limit;
+    }
+
+    public void recordRejected() {
+        rejected.increment();
+    }
+
+    public void release(long latencyNanos) {
+        int current = inFlight.getAndDecrement();
+        if (isAdaptive && adjusting.tryLock()) {
+            try {
+                adjust(current, latencyNanos);
+            } finally {
+                adjusting.unlock();
+            }
+        }
+    }
+
+    private void adjust(int inFlightAtCompletion, long latencyNanos) {
+        windowMinLatency = Math.min(windowMinLatency, latencyNanos);
+        if (++windowSamples >= WINDOW_SAMPLES) {
+            baselineLatency = baselineLatency == 0
+                    ? windowMinLatency
+                    : Math.min(windowMinLatency, (long) (baselineLatency * BASELINE_DRIFT));
+            windowMinLatency = Long.MAX_VALUE;
+            windowSamples = 0;
+        }
+        if (baselineLatency == 0)
+            return;
+
+        samplesSinceBackoff++;
+        var threshold = Math.max(MIN_LATENCY_THRESHOLD, (long) (baselineLatency * LATENCY_TOLERANCE));
+        if (latencyNanos > threshold) {
+            if (samplesSinceBackoff >= limit) {
+                adaptiveLimit = Math.max(MIN_LIMIT, adaptiveLimit * BACKOFF_RATIO);
+                samplesSinceBackoff = 0;
+            }
+        } else if (inFlightAtCompletion * 2 >= limit) {
+            adaptiveLimit = Math.min(maxLimit, adaptiveLimit + 1.0 / adaptiveLimit);
+        }
+        limit = (int) adaptiveLimit;
+    }
+
+    public boolean isAdaptive() {
+        return isAdaptive;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getBaselineLatency() {
+        return baselineLatency;
+    }
+}
@@ -0,0 +1,76 @@
+package org.example;
+
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConnectionExecutor {
+    private final String mode;
+    private final ExecutorService executor;
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final AtomicInteger queuedCount = new AtomicInteger();
+
+    private ConnectionExecutor(String mode, ExecutorService executor) {
+        this.mode = mode;
+        this.executor = executor;
+    }
+
+    public static ConnectionExecutor virtualThreads() {
+        var factory = Thread.ofVirtual().name("connection-", 0).factory();
+        return new ConnectionExecutor("virtual", Executors.newThreadPerTaskExecutor(factory));
+    }
+
+    public static ConnectionExecutor platformPool(int threads) {
+        var factory = Thread.ofPlatform().name("connection-", 0).factory();
+        return new ConnectionExecutor("pool", Executors.newFixedThreadPool(threads, factory));
+    }
+
+    public static ConnectionExecutor of(String mode, int threads) {
+        if (Objects.equals("virtual", mode))
+            return virtualThreads();
+        if (Objects.equals("pool", mode))
+            return platformPool(threads);
+        throw new IllegalArgumentException("Unknown connection executor: " + mode);
+    }
+
+    public void execute(Runnable connection) {
+        queuedCount.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                queuedCount.decrementAndGet();
+                activeCount.incrementAndGet();
+                try {
+                    connection.run();
+                } finally {
+                    activeCount.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException ree) {
+            queuedCount.decrementAndGet();
+            throw ree;
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    public int getQueuedCount() {
+        return queuedCount.get();
+    }
+}
@@ -0,0 +1,219 @@
+package org.example;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class DirectoryListingCache {
+    private static final int MAX_PAGES_PER_LISTING = 64;
+
+    private final Path root;
+    private final int pageSize;
+    private final int maxDirectories;
+    private final ConcurrentHashMap<Path, Listing> listings = new ConcurrentHashMap<>();
+    private final LruIndex<Path> accessOrder = new LruIndex<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private WatchService watchService;
+    private boolean isClosed;
+
+    public DirectoryListingCache(Path root, int pageSize, int maxDirectories) {
+        this.root = root;
+        this.pageSize = pageSize;
+        this.maxDirectories = maxDirectories;
+    }
+
+    public byte[] get(Path directory, String after) throws IOException {
+        var key = directory.toRealPath();
+        var cursor = after == null ? "" : after;
+        var listing = listings.get(key);
+        if (listing != null) {
+            var page = listing.pages.get(cursor);
+            if (page != null) {
+                accessOrder.recordAccess(key);
+                hits.increment();
+                return page;
+            }
+        }
+
+        misses.increment();
+        if (listing == null)
+            listing = watch(key);
+        var page = render(key, after);
+        if (listing != null && isCacheable(key, after) && listing.pages.size() < MAX_PAGES_PER_LISTING)
+            listing.pages.putIfAbsent(cursor, page);
+        return page;
+    }
+
+    private boolean isCacheable(Path directory, String after) {
+        if (after == null)
+            return true;
+        if (after.isEmpty() || after.indexOf('/') != -1 || after.indexOf('\\') != -1 || after.equals(".") || after.equals(".."))
+            return false;
+        try {
+            return Files.exists(directory.resolve(after), LinkOption.NOFOLLOW_LINKS);
+        } catch (InvalidPathException ipe) {
+            return false;
+        }
+    }
+
+    private Listing watch(Path directory) {
+        try {
+            var watchKey = directory.register(getWatchService(),
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE);
+            var listing = new Listing(watchKey);
+            var existing = listings.putIfAbsent(directory, listing);
+            if (existing != null)
+                return existing;
+            accessOrder.add(directory);
+            evictUntilWithinBounds();
+            return listing;
+        } catch (ClosedWatchServiceException e) {
+            return null;
+        } catch (IOException ioe) {
+            System.out.println(ioe.getMessage());
+            return null;
+        }
+    }
+
+    private void evictUntilWithinBounds() {
+        while (listings.size() > maxDirectories) {
+            var directory = accessOrder.pollEldest();
+            if (directory == null)
+                return;
+            var listing = listings.remove(directory);
+            if (listing != null)
+                listing.watchKey.cancel();
+        }
+    }
+
+    private synchronized WatchService getWatchService() throws IOException {
+        if (isClosed)
+            throw new ClosedWatchServiceException();
+        if (watchService == null) {
+            watchService = FileSystems.getDefault().newWatchService();
+            var watcher = new Thread(this::processEvents, "directory-listing-watcher");
+            watcher.setDaemon(true);
+            watcher.start();
+        }
+        return watchService;
+    }
+
+    private void processEvents() {
+        while (true) {
+            WatchKey watchKey;
+            try {
+                watchKey = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            watchKey.pollEvents();
+            var directory = (Path) watchKey.watchable();
+            var listing = listings.get(directory);
+            if (listing != null && listing.watchKey == watchKey && listings.remove(directory, listing)) {
+                accessOrder.remove(directory);
+                invalidations.increment();
+            }
+            if (!watchKey.reset() && listings.remove(directory) != null)
+                accessOrder.remove(directory);
+        }
+    }
+
+    public byte[] render(Path directory, String after) throws IOException {
+        var rootPath = root.toRealPath().toString();
+        var hrefPrefix = directory.toRealPath().toString().replace(rootPath, "");
+        var names = new PriorityQueue<String>(Comparator.reverseOrder());
+        var hasMore = false;
+
+        try (var entries = Files.newDirectoryStream(directory)) {
+            for (var entry : entries) {
+                var name = entry.getFileName().toString();
+                if (after != null && name.compareTo(after) <= 0)
+                    continue;
+                if (names.size() < pageSize) {
+                    names.add(name);
+                } else {
+                    hasMore = true;
+                    if (name.compareTo(names.peek()) < 0) {
+                        names.poll();
+                        names.add(name);
+                    }
+                }
+            }
+        }
+
+        var page = new ArrayList<>(names);
+        Collections.sort(page);
+
+        var html = new StringBuilder();
+        html.append("<h1>Directory Listing for .").append(hrefPrefix).append("</h1>\n<ul>");
+        for (var name : page) {
+            html.append("<li><a href=\"");
+            if (Files.isDirectory(directory.resolve(name)))
+                html.append("/listing");
+            html.append(hrefPrefix).append('/').append(name).append("\">").append(name).append("</a></li>");
+        }
+        html.append("</ul>");
+        if (hasMore) {
+            html.append("\n<a href=\"/listing").append(hrefPrefix).append("?after=")
+                    .append(URLEncoder.encode(page.get(page.size() - 1), StandardCharsets.UTF_8))
+                    .append("\">Next</a>");
+        }
+
+        return html.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    public synchronized void close() throws IOException {
+        isClosed = true;
+        listings.clear();
+        accessOrder.clear();
+        if (watchService != null)
+            watchService.close();
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public int getDirectoryCount() {
+        return listings.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getInvalidationCount() {
+        return invalidations.sum();
+    }
+
+    private static class Listing {
+        private final WatchKey watchKey;
+        private final ConcurrentHashMap<String, byte[]> pages = new ConcurrentHashMap<>();
+
+        private Listing(WatchKey watchKey) {
+            this.watchKey = watchKey;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.example;
+
+public record DrainStats(int connectionsAtStart, int requestsAtStart, int connectionsForceClosed,
+                         int requestsAbandoned, long elapsedMillis) {
+    public boolean isComplete() {
+        return connectionsForceClosed == 0 && requestsAbandoned == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Drained " + connectionsAtStart + " connections and " + requestsAtStart + " in-flight requests in "
+                + elapsedMillis + " ms; force-closed " + connectionsForceClosed + " connections with "
+                + requestsAbandoned + " requests unfinished";
+    }
+}
@@ -0,0 +1,56 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+public class FileSessionStore implements SessionStore {
+    private static final String EXTENSION = ".session";
+    private final Path directory;
+
+    public FileSessionStore(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    public GuessingGame load(String id) throws IOException {
+        String content;
+        try {
+            content = Files.readString(fileOf(id));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+
+        var fields = content.trim().split(" ");
+        if (fields.length != 2)
+            throw new IOException("Malformed session file for " + id);
+        try {
+            return new GuessingGame(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]));
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed session file for " + id);
+        }
+    }
+
+    public void save(String id, GuessingGame game) throws IOException {
+        var temp = Files.createTempFile(directory, id, ".tmp");
+        try {
+            Files.writeString(temp, game.getAnswer() + " " + game.getGuessesLeft() + "\n");
+            Files.move(temp, fileOf(id), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public void remove(String id) throws IOException {
+        Files.deleteIfExists(fileOf(id));
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    private Path fileOf(String id) {
+        return directory.resolve(id + EXTENSION);
+    }
+}
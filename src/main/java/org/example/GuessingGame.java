@@ -1,14 +1,19 @@
 package org.example;
 
 public class GuessingGame {
-    public int answer;
-    public int guessesLeft = 7;
+    private int answer;
+    private int guessesLeft = 7;
 
     public GuessingGame() {
         setAnswer((int)(Math.random() * 100) + 1);
     }
 
-    public String handleGuess(int guess) {
+    public GuessingGame(int answer, int guessesLeft) {
+        this.answer = answer;
+        this.guessesLeft = guessesLeft;
+    }
+
+    public synchronized String handleGuess(int guess) {
         guessesLeft--;
 
         if (guess == answer)
@@ -24,15 +29,15 @@ public class GuessingGame {
         return guess + " is too low. Try again.";
     }
 
-    public void setAnswer(int i) {
+    public synchronized void setAnswer(int i) {
         answer = i;
     }
 
-    public int getAnswer() {
+    public synchronized int getAnswer() {
         return answer;
     }
 
-    public int getGuessesLeft() {
+    public synchronized int getGuessesLeft() {
         return guessesLeft;
     }
 
@@ -0,0 +1,8 @@
+package org.example;
+
+import java.io.IOException;
+import java.util.Map;
+
+public interface Handler {
+    Response handle(Request request, Map<String, String> parameters) throws IOException, InterruptedException;
+}
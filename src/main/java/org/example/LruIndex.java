@@ -0,0 +1,87 @@
+package org.example;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class LruIndex<K> {
+    private static final int ACCESS_BUFFER_SIZE = 64;
+    private static final int DRAIN_INTERVAL_MASK = 15;
+
+    private final AtomicReferenceArray<K> recentAccesses = new AtomicReferenceArray<>(ACCESS_BUFFER_SIZE);
+    private final LinkedHashMap<K, Boolean> order = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public void recordAccess(K key) {
+        int slot = ThreadLocalRandom.current().nextInt(ACCESS_BUFFER_SIZE);
+        recentAccesses.lazySet(slot, key);
+        if ((slot & DRAIN_INTERVAL_MASK) == 0 && lock.tryLock()) {
+            try {
+                drainAccesses();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    public void add(K key) {
+        lock.lock();
+        try {
+            drainAccesses();
+            order.put(key, Boolean.TRUE);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void remove(K key) {
+        lock.lock();
+        try {
+            order.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public K pollEldest() {
+        lock.lock();
+        try {
+            drainAccesses();
+            var iterator = order.keySet().iterator();
+            if (!iterator.hasNext())
+                return null;
+            var eldest = iterator.next();
+            iterator.remove();
+            return eldest;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            order.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return order.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void drainAccesses() {
+        for (int i = 0; i < ACCESS_BUFFER_SIZE; i++) {
+            var key = recentAccesses.getAndSet(i, null);
+            if (key != null)
+                order.get(key);
+        }
+    }
+}
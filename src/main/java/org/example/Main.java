@@ -4,7 +4,9 @@ public class Main {
     public static void main(String[] args) {
         var server = new Server();
         server.parseArgs(args);
-        if (server.isRunnable)
+        if (server.isRunnable) {
             server.run();
+            Runtime.getRuntime().addShutdownHook(new Thread(server::stopGracefully, "graceful-shutdown"));
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package org.example;
+
+import java.io.IOException;
+
+public class MalformedMultipartException extends IOException {
+    public MalformedMultipartException(String message) {
+        super(message);
+    }
+}
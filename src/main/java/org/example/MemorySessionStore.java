@@ -0,0 +1,23 @@
+package org.example;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+public class MemorySessionStore implements SessionStore {
+    private final ConcurrentHashMap<String, GuessingGame> games = new ConcurrentHashMap<>();
+
+    public GuessingGame load(String id) {
+        return games.get(id);
+    }
+
+    public void save(String id, GuessingGame game) {
+        games.put(id, game);
+    }
+
+    public void remove(String id) {
+        games.remove(id);
+    }
+
+    public int size() {
+        return games.size();
+    }
+}
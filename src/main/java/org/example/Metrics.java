@@ -0,0 +1,207 @@
+package org.example;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public class Metrics {
+    public static final String CONTENT_TYPE = "Content-Type: text/plain; version=0.0.4; charset=utf-8\r\n";
+    public static final String STATIC_ROUTE = "static";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final String[] STATUS_CLASSES = {"1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    private final ConcurrentHashMap<String, RouteMetrics> routes = new ConcurrentHashMap<>();
+    private final LatencyHistogram parseLatency = new LatencyHistogram();
+    private final LatencyHistogram writeLatency = new LatencyHistogram();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder acceptedConnections = new LongAdder();
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private volatile ConcurrencyLimiter concurrencyLimiter;
+
+    public void setConcurrencyLimiter(ConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    public void recordParse(long nanos) {
+        parseLatency.record(nanos);
+    }
+
+    public void recordHandle(String route, String status, long nanos) {
+        var metrics = routes.get(route);
+        if (metrics == null)
+            metrics = routes.computeIfAbsent(route, key -> new RouteMetrics());
+        metrics.latency.record(nanos);
+
+        int statusClass = status.isEmpty() ? -1 : status.charAt(0) - '1';
+        if (statusClass >= 0 && statusClass < STATUS_CLASSES.length)
+            metrics.responses[statusClass].increment();
+    }
+
+    public void recordWrite(long nanos, long bytes) {
+        writeLatency.record(nanos);
+        bytesOut.add(bytes);
+    }
+
+    public void recordBytesIn(long bytes) {
+        bytesIn.add(bytes);
+    }
+
+    public void recordBytesOut(long bytes) {
+        bytesOut.add(bytes);
+    }
+
+    public void connectionOpened() {
+        acceptedConnections.increment();
+        activeConnections.incrementAndGet();
+    }
+
+    public void connectionClosed() {
+        activeConnections.decrementAndGet();
+    }
+
+    public long getRequestCount(String route) {
+        var metrics = routes.get(route);
+        if (metrics == null)
+            return 0;
+        long total = 0;
+        for (var responses : metrics.responses)
+            total += responses.sum();
+        return total;
+    }
+
+    public LatencyHistogram getHandleLatency(String route) {
+        var metrics = routes.get(route);
+        return metrics == null ? null : metrics.latency;
+    }
+
+    public LatencyHistogram getParseLatency() {
+        return parseLatency;
+    }
+
+    public LatencyHistogram getWriteLatency() {
+        return writeLatency;
+    }
+
+    public long getBytesIn() {
+        return bytesIn.sum();
+    }
+
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+    public long getAcceptedConnections() {
+        return acceptedConnections.sum();
+    }
+
+    public int getActiveConnections() {
+        return activeConnections.get();
+    }
+
+    public String toPrometheus() {
+        var text = new StringBuilder();
+        appendMetric(text, "http_connections_accepted_total", "counter", "Connections accepted.", acceptedConnections.sum());
+        appendMetric(text, "http_connections_active", "gauge", "Connections currently open.", activeConnections.get());
+        appendMetric(text, "http_received_bytes_total", "counter", "Bytes read from clients.", bytesIn.sum());
+        appendMetric(text, "http_sent_bytes_total", "counter", "Bytes written to clients.", bytesOut.sum());
+        var limiter = concurrencyLimiter;
+        if (limiter != null) {
+            appendMetric(text, "http_concurrency_limit", "gauge", "Requests admitted at once before shedding.", limiter.getLimit());
+            appendMetric(text, "http_requests_in_flight", "gauge", "Admitted requests not yet completed.", limiter.getInFlight());
+            appendMetric(text, "http_requests_rejected_total", "counter", "Requests shed with 503 Service Unavailable.", limiter.getRejectedCount());
+        }
+
+        Map<String, RouteMetrics> sortedRoutes = new TreeMap<>(routes);
+        text.append("# HELP http_requests_total Requests handled, by route and status class.\n");
+        text.append("# TYPE http_requests_total counter\n");
+        for (var route : sortedRoutes.entrySet()) {
+            for (int i = 0; i < STATUS_CLASSES.length; i++) {
+                var responses = route.getValue().responses[i].sum();
+                if (responses > 0) {
+                    text.append("http_requests_total{route=\"").append(escapeLabel(route.getKey()))
+                            .append("\",code=\"").append(STATUS_CLASSES[i]).append("\"} ").append(responses).append('\n');
+                }
+            }
+        }
+
+        appendSummaryHeader(text, "http_parse_seconds", "Time spent parsing request heads.");
+        appendSummary(text, "http_parse_seconds", "", parseLatency);
+        appendSummaryHeader(text, "http_handle_seconds", "Time spent producing responses, by route.");
+        for (var route : sortedRoutes.entrySet())
+            appendSummary(text, "http_handle_seconds", "route=\"" + escapeLabel(route.getKey()) + "\"", route.getValue().latency);
+        appendSummaryHeader(text, "http_write_seconds", "Time spent writing responses.");
+        appendSummary(text, "http_write_seconds", "", writeLatency);
+        return text.toString();
+    }
+
+    private static void appendMetric(StringBuilder text, String name, String type, String help, long value) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        text.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void appendSummaryHeader(StringBuilder text, String name, String help) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(name).append(" summary\n");
+    }
+
+    private static void appendSummary(StringBuilder text, String name, String labels, LatencyHistogram histogram) {
+        var separator = labels.isEmpty() ? "" : ",";
+        for (var quantile : QUANTILES) {
+            text.append(name).append('{').append(labels).append(separator).append("quantile=\"").append(quantile).append("\"} ")
+                    .append(seconds(histogram.getValueAtPercentile(quantile * 100))).append('\n');
+        }
+        var braces = labels.isEmpty() ? "" : "{" + labels + "}";
+        text.append(name).append("_sum").append(braces).append(' ').append(seconds(histogram.getSum())).append('\n');
+        text.append(name).append("_count").append(braces).append(' ').append(histogram.getCount()).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / 1e9);
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static class RouteMetrics {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder[] responses = new LongAdder[STATUS_CLASSES.length];
+
+        private RouteMetrics() {
+            for (int i = 0; i < responses.length; i++)
+                responses[i] = new LongAdder();
+        }
+    }
+
+    public static class CountingInputStream extends FilterInputStream {
+        private final Metrics metrics;
+
+        public CountingInputStream(InputStream in, Metrics metrics) {
+            super(in);
+            this.metrics = metrics;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b != -1)
+                metrics.recordBytesIn(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            int bytesRead = in.read(bytes, offset, length);
+            if (bytesRead > 0)
+                metrics.recordBytesIn(bytesRead);
+            return bytesRead;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class MimeTypes {
+    public static final String DEFAULT_TYPE = "text/html";
+    private static final ConcurrentHashMap<String, byte[]> ENCODED_HEADERS = new ConcurrentHashMap<>();
+    private static final Map<String, String> BUILT_IN = Map.ofEntries(
+            Map.entry("html", "text/html"),
+            Map.entry("htm", "text/html"),
+            Map.entry("txt", "text/plain"),
+            Map.entry("md", "text/markdown"),
+            Map.entry("csv", "text/csv"),
+            Map.entry("css", "text/css"),
+            Map.entry("js", "text/javascript"),
+            Map.entry("mjs", "text/javascript"),
+            Map.entry("json", "application/json"),
+            Map.entry("xml", "application/xml"),
+            Map.entry("xhtml", "application/xhtml+xml"),
+            Map.entry("pdf", "application/pdf"),
+            Map.entry("zip", "application/zip"),
+            Map.entry("gz", "application/gzip"),
+            Map.entry("tar", "application/x-tar"),
+            Map.entry("wasm", "application/wasm"),
+            Map.entry("bin", "application/octet-stream"),
+            Map.entry("png", "image/png"),
+            Map.entry("gif", "image/gif"),
+            Map.entry("jpg", "image/jpeg"),
+            Map.entry("jpeg", "image/jpeg"),
+            Map.entry("webp", "image/webp"),
+            Map.entry("avif", "image/avif"),
+            Map.entry("svg", "image/svg+xml"),
+            Map.entry("ico", "image/vnd.microsoft.icon"),
+            Map.entry("bmp", "image/bmp"),
+            Map.entry("mp3", "audio/mpeg"),
+            Map.entry("wav", "audio/wav"),
+            Map.entry("ogg", "audio/ogg"),
+            Map.entry("mp4", "video/mp4"),
+            Map.entry("webm", "video/webm"),
+            Map.entry("woff", "font/woff"),
+            Map.entry("woff2", "font/woff2"),
+            Map.entry("ttf", "font/ttf"),
+            Map.entry("otf", "font/otf"));
+
+    private final Map<String, Type> types;
+    private final Type defaultType;
+
+    private MimeTypes(Map<String, String> mimeTypes) {
+        var typesByName = new HashMap<String, Type>();
+        var typesByExtension = new HashMap<String, Type>();
+        for (var entry : mimeTypes.entrySet()) {
+            var type = typesByName.computeIfAbsent(entry.getValue(), Type::of);
+            typesByExtension.put(entry.getKey().toLowerCase(Locale.ROOT), type);
+        }
+
+        this.types = Map.copyOf(typesByExtension);
+        this.defaultType = typesByName.computeIfAbsent(DEFAULT_TYPE, Type::of);
+    }
+
+    public static MimeTypes defaults() {
+        return new MimeTypes(BUILT_IN);
+    }
+
+    public static MimeTypes load(Path overrides) throws IOException {
+        var mimeTypes = new HashMap<>(BUILT_IN);
+        var lineNumber = 0;
+        for (var line : Files.readAllLines(overrides)) {
+            lineNumber++;
+            var comment = line.indexOf('#');
+            var fields = (comment == -1 ? line : line.substring(0, comment)).trim().split("\\s+");
+            if (fields.length == 1 && fields[0].isEmpty())
+                continue;
+            if (fields.length < 2 || !fields[0].contains("/"))
+                throw new IOException(overrides + ":" + lineNumber + ": expected a MIME type followed by extensions");
+
+            for (int i = 1; i < fields.length; i++)
+                mimeTypes.put(fields[i].startsWith(".") ? fields[i].substring(1) : fields[i], fields[0]);
+        }
+
+        return new MimeTypes(mimeTypes);
+    }
+
+    public Type forExtension(String extension) {
+        var type = types.get(extension);
+        if (type == null)
+            type = types.get(extension.toLowerCase(Locale.ROOT));
+        return type == null ? defaultType : type;
+    }
+
+    public static byte[] encodeHeader(String header) {
+        var encoded = ENCODED_HEADERS.get(header);
+        return encoded == null ? header.getBytes(StandardCharsets.ISO_8859_1) : encoded;
+    }
+
+    public record Type(String name, String header, byte[] headerBytes) {
+        private static Type of(String name) {
+            var header = "Content-Type: " + name + "\r\n";
+            var headerBytes = ENCODED_HEADERS.computeIfAbsent(header, key -> key.getBytes(StandardCharsets.ISO_8859_1));
+            return new Type(name, header, headerBytes);
+        }
+    }
+}
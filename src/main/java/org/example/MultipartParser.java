@@ -0,0 +1,208 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class MultipartParser {
+    public static final int MAX_BOUNDARY_LENGTH = 70;
+    public static final int MAX_PART_HEADER_SIZE = 8192;
+    private static final int BUFFER_SIZE = 8192;
+
+    private final InputStream in;
+    private final byte[] delimiter;
+    private final byte[] buffer;
+    private int start;
+    private int end;
+    private Part currentPart;
+    private boolean isFinished;
+
+    public MultipartParser(InputStream in, String boundary) {
+        this.in = in;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        this.buffer = new byte[BUFFER_SIZE + delimiter.length];
+        buffer[0] = '\r';
+        buffer[1] = '\n';
+        end = 2;
+    }
+
+    public static String boundaryOf(String contentType) {
+        if (contentType == null || !contentType.toLowerCase().startsWith("multipart/form-data"))
+            return null;
+
+        for (var parameter : contentType.split(";")) {
+            var pair = parameter.trim().split("=", 2);
+            if (pair.length == 2 && pair[0].trim().equalsIgnoreCase("boundary")) {
+                var boundary = unquote(pair[1].trim());
+                return boundary.isEmpty() || boundary.length() > MAX_BOUNDARY_LENGTH ? null : boundary;
+            }
+        }
+
+        return null;
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\""))
+            return value.substring(1, value.length() - 1);
+        return value;
+    }
+
+    public Part nextPart() throws IOException {
+        if (isFinished)
+            return null;
+
+        if (currentPart != null)
+            currentPart.transferTo(OutputStream.nullOutputStream());
+        else
+            readUntilDelimiter(OutputStream.nullOutputStream());
+
+        if (!fill(2))
+            throw new MalformedMultipartException("Unexpected end of multipart body");
+        if (buffer[start] == '-' && buffer[start + 1] == '-') {
+            isFinished = true;
+            currentPart = null;
+            return null;
+        }
+
+        var transportPadding = readLine(MAX_PART_HEADER_SIZE);
+        if (!transportPadding.isBlank())
+            throw new MalformedMultipartException("Malformed multipart delimiter");
+
+        var headers = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+        int headerSize = 0;
+        String line;
+        while (!(line = readLine(MAX_PART_HEADER_SIZE - headerSize)).isEmpty()) {
+            headerSize += line.length() + 2;
+            var header = line.split(":", 2);
+            if (header.length != 2)
+                throw new MalformedMultipartException("Malformed multipart header");
+            headers.put(header[0].trim(), header[1].trim());
+        }
+
+        currentPart = new Part(headers);
+        return currentPart;
+    }
+
+    private long readUntilDelimiter(OutputStream sink) throws IOException {
+        long written = 0;
+        while (true) {
+            int match = indexOfDelimiter();
+            if (match != -1) {
+                sink.write(buffer, start, match - start);
+                written += match - start;
+                start = match + delimiter.length;
+                return written;
+            }
+
+            int safeEnd = Math.max(start, end - delimiter.length + 1);
+            sink.write(buffer, start, safeEnd - start);
+            written += safeEnd - start;
+            start = safeEnd;
+
+            if (!fill(end - start + 1))
+                throw new MalformedMultipartException("Unexpected end of multipart body");
+        }
+    }
+
+    private int indexOfDelimiter() {
+        outer:
+        for (int i = start; i <= end - delimiter.length; i++) {
+            for (int j = 0; j < delimiter.length; j++) {
+                if (buffer[i + j] != delimiter[j])
+                    continue outer;
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private String readLine(int maxLength) throws IOException {
+        var line = new StringBuilder();
+        while (true) {
+            if (!fill(1))
+                throw new MalformedMultipartException("Unexpected end of multipart body");
+
+            var b = buffer[start++];
+            if (b == '\n')
+                break;
+            if (line.length() >= maxLength)
+                throw new MalformedMultipartException("Multipart part header exceeds " + MAX_PART_HEADER_SIZE + " bytes");
+            line.append((char) (b & 0xff));
+        }
+
+        var length = line.length();
+        if (length > 0 && line.charAt(length - 1) == '\r')
+            line.setLength(length - 1);
+        return new String(line.toString().getBytes(StandardCharsets.ISO_8859_1), StandardCharsets.UTF_8);
+    }
+
+    private boolean fill(int count) throws IOException {
+        if (end - start >= count)
+            return true;
+
+        System.arraycopy(buffer, start, buffer, 0, end - start);
+        end -= start;
+        start = 0;
+
+        while (end < count) {
+            int bytesRead = in.read(buffer, end, buffer.length - end);
+            if (bytesRead == -1)
+                return false;
+            end += bytesRead;
+        }
+        return true;
+    }
+
+    public class Part {
+        private final Map<String, String> headers;
+        private boolean isConsumed;
+
+        private Part(Map<String, String> headers) {
+            this.headers = headers;
+        }
+
+        public String getHeader(String name) {
+            return headers.get(name);
+        }
+
+        public Map<String, String> getHeaders() {
+            return headers;
+        }
+
+        public String getName() {
+            return getDispositionParameter("name");
+        }
+
+        public String getFileName() {
+            return getDispositionParameter("filename");
+        }
+
+        public String getContentType() {
+            var contentType = headers.get("Content-Type");
+            return contentType == null ? "text/plain" : contentType;
+        }
+
+        private String getDispositionParameter(String name) {
+            var disposition = headers.get("Content-Disposition");
+            if (disposition == null)
+                return null;
+
+            for (var parameter : disposition.split(";")) {
+                var pair = parameter.trim().split("=", 2);
+                if (pair.length == 2 && pair[0].trim().equalsIgnoreCase(name))
+                    return unquote(pair[1].trim());
+            }
+            return null;
+        }
+
+        public long transferTo(OutputStream out) throws IOException {
+            if (isConsumed)
+                return 0;
+            isConsumed = true;
+            return readUntilDelimiter(out);
+        }
+    }
+}
@@ -0,0 +1,963 @@
+package org.example;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class NioServer {
+    private static final int READ_BUFFER_SIZE = 16384;
+    private static final int STREAM_CHUNK_SIZE = 8192;
+    private static final int STREAM_QUEUE_CAPACITY = 8;
+    private static final int MAX_PIPELINED_REQUESTS = 16;
+    private static final int MAX_GATHERED_WRITES = 64;
+    private static final int MAX_BUFFERED_INPUT = 65536;
+
+    private final Server server;
+    private final ConnectionExecutor handlerExecutor;
+    private final int keepAliveTimeout;
+    private final EventLoop[] eventLoops;
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private List<ServerSocketChannel> listeners = List.of();
+    private volatile boolean isRunning;
+    private int nextLoop;
+
+    public NioServer(Server server, ConnectionExecutor handlerExecutor, int eventLoopCount, int keepAliveTimeout) throws IOException {
+        this.server = server;
+        this.handlerExecutor = handlerExecutor;
+        this.keepAliveTimeout = keepAliveTimeout;
+        this.eventLoops = new EventLoop[eventLoopCount];
+        for (int i = 0; i < eventLoopCount; i++)
+            eventLoops[i] = new EventLoop();
+    }
+
+    public void start(int port) throws IOException {
+        start(port, 0);
+    }
+
+    public void start(int port, int backlog) throws IOException {
+        start(port, backlog, 1);
+    }
+
+    public void start(int port, int backlog, int acceptors) throws IOException {
+        listeners = Server.openListeners(port, backlog, acceptors);
+        isRunning = true;
+
+        for (int i = 0; i < listeners.size(); i++) {
+            var listener = listeners.get(i);
+            listener.configureBlocking(false);
+            var eventLoop = eventLoops[i % eventLoops.length];
+            eventLoop.execute(() -> eventLoop.registerAcceptor(listener));
+        }
+        for (int i = 0; i < eventLoops.length; i++)
+            new Thread(eventLoops[i], "event-loop-" + i).start();
+    }
+
+    public void drain() throws IOException {
+        closeListeners();
+        for (var eventLoop : eventLoops)
+            eventLoop.execute(eventLoop::drainConnections);
+    }
+
+    public void stop() throws IOException {
+        isRunning = false;
+        closeListeners();
+        for (var eventLoop : eventLoops)
+            eventLoop.selector.wakeup();
+    }
+
+    private void closeListeners() throws IOException {
+        for (var listener : listeners)
+            listener.close();
+    }
+
+    public ServerSocket getSocket() {
+        return listeners.isEmpty() ? null : listeners.get(0).socket();
+    }
+
+    public int getAcceptorCount() {
+        return listeners.size();
+    }
+
+    public int getOpenConnections() {
+        return openConnections.get();
+    }
+
+    int frameLength(byte[] data, int length) throws IOException {
+        return frameLength(new RequestParser(), data, length);
+    }
+
+    private static int frameLength(RequestParser parser, byte[] data, int length) throws IOException {
+        if (!parser.parse(data, 0, length))
+            return -1;
+
+        int headEnd = parser.getHeadEnd();
+        if (parser.headerContains("Transfer-Encoding", "chunked"))
+            return chunkedFrameLength(data, headEnd, length);
+
+        long contentLength = parser.getContentLength();
+        if (contentLength == -1)
+            return headEnd;
+
+        long frameLength = headEnd + contentLength;
+        return frameLength <= length ? (int) frameLength : -1;
+    }
+
+    private static int chunkedFrameLength(byte[] data, int position, int length) throws IOException {
+        long bodyLength = 0;
+        while (true) {
+            int lineEnd = indexOf(data, position, length, "\r\n");
+            if (lineEnd == -1)
+                return -1;
+
+            int chunkSize = parseChunkSize(data, position, lineEnd);
+            position = lineEnd + 2;
+
+            if (chunkSize == 0)
+                break;
+            bodyLength += chunkSize;
+            if (bodyLength > Server.MAX_BODY_SIZE)
+                throw new PayloadTooLargeException();
+
+            position += chunkSize + 2;
+            if (position > length)
+                return -1;
+        }
+
+        while (true) {
+            int lineEnd = indexOf(data, position, length, "\r\n");
+            if (lineEnd == -1)
+                return -1;
+            if (lineEnd == position)
+                return lineEnd + 2;
+            position = lineEnd + 2;
+        }
+    }
+
+    private static int parseChunkSize(byte[] data, int position, int lineEnd) throws IOException {
+        while (position < lineEnd && data[position] == ' ')
+            position++;
+
+        int chunkSize = 0;
+        int digits = 0;
+        for (; position < lineEnd && data[position] != ';' && data[position] != ' '; position++, digits++) {
+            int digit = Character.digit(data[position], 16);
+            if (digit == -1 || digits == 7)
+                throw new IOException("Malformed chunk size");
+            chunkSize = chunkSize * 16 + digit;
+        }
+
+        if (digits == 0)
+            throw new IOException("Malformed chunk size");
+        return chunkSize;
+    }
+
+    private static int indexOf(byte[] data, int from, int length, String pattern) {
+        outer:
+        for (int i = from; i <= length - pattern.length(); i++) {
+            for (int j = 0; j < pattern.length(); j++) {
+                if (data[i + j] != pattern.charAt(j))
+                    continue outer;
+            }
+            return i;
+        }
+
+        return -1;
+    }
+
+    private EventLoop nextEventLoop() {
+        var eventLoop = eventLoops[nextLoop];
+        nextLoop = (nextLoop + 1) % eventLoops.length;
+        return eventLoop;
+    }
+
+    private class EventLoop implements Runnable {
+        private final Selector selector;
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final HashSet<Connection> connections = new HashSet<>();
+        private long lastIdleSweep = System.currentTimeMillis();
+
+        EventLoop() throws IOException {
+            this.selector = Selector.open();
+        }
+
+        void execute(Runnable task) {
+            tasks.add(task);
+            selector.wakeup();
+        }
+
+        void registerAcceptor(ServerSocketChannel channel) {
+            try {
+                channel.register(selector, SelectionKey.OP_ACCEPT);
+            } catch (IOException ioe) {
+                System.out.println(ioe.getMessage());
+            }
+        }
+
+        void register(SocketChannel channel) {
+            try {
+                var connection = new Connection(this, channel);
+                connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+                connections.add(connection);
+            } catch (IOException ioe) {
+                System.out.println(ioe.getMessage());
+                openConnections.decrementAndGet();
+                try {
+                    channel.close();
+                } catch (IOException closeException) {
+                    System.out.println(closeException.getMessage());
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            while (isRunning) {
+                try {
+                    selector.select(1000);
+                    runTasks();
+
+                    var selectedKeys = selector.selectedKeys().iterator();
+                    while (selectedKeys.hasNext()) {
+                        var key = selectedKeys.next();
+                        selectedKeys.remove();
+                        handleKey(key);
+                    }
+
+                    closeIdleConnections();
+                } catch (IOException ioe) {
+                    System.out.println(ioe.getMessage());
+                }
+            }
+
+            for (var connection : new ArrayList<>(connections))
+                connection.close();
+            try {
+                selector.close();
+            } catch (IOException ioe) {
+                System.out.println(ioe.getMessage());
+            }
+        }
+
+        private void runTasks() {
+            Runnable task;
+            while ((task = tasks.poll()) != null)
+                task.run();
+        }
+
+        private void handleKey(SelectionKey key) {
+            if (!key.isValid())
+                return;
+
+            if (key.isAcceptable()) {
+                accept((ServerSocketChannel) key.channel());
+                return;
+            }
+
+            var connection = (Connection) key.attachment();
+            if (key.isReadable())
+                connection.read();
+            if (key.isValid() && key.isWritable())
+                connection.flush();
+        }
+
+        private void accept(ServerSocketChannel listener) {
+            try {
+                SocketChannel channel;
+                while ((channel = listener.accept()) != null) {
+                    channel.configureBlocking(false);
+                    openConnections.incrementAndGet();
+                    server.getMetrics().connectionOpened();
+                    var eventLoop = listeners.size() > 1 ? this : nextEventLoop();
+                    var accepted = channel;
+                    if (eventLoop == this)
+                        register(accepted);
+                    else
+                        eventLoop.execute(() -> eventLoop.register(accepted));
+                }
+            } catch (IOException ioe) {
+                System.out.println(ioe.getMessage());
+            }
+        }
+
+        private void drainConnections() {
+            for (var connection : new ArrayList<>(connections))
+                connection.drain();
+        }
+
+        private void closeIdleConnections() {
+            var now = System.currentTimeMillis();
+            if (now - lastIdleSweep < 1000)
+                return;
+            lastIdleSweep = now;
+
+            for (var connection : new ArrayList<>(connections)) {
+                if (connection.isIdleSince(now - keepAliveTimeout))
+                    connection.close();
+            }
+        }
+    }
+
+    private class Connection {
+        private final EventLoop eventLoop;
+        private final SocketChannel channel;
+        private final ArrayDeque<PendingWrite> output = new ArrayDeque<>();
+        private final ArrayDeque<Exchange> exchanges = new ArrayDeque<>();
+        private RequestParser parser = new RequestParser();
+        private UploadStream upload;
+        private boolean isUploadKeepAlive;
+        private SelectionKey key;
+        private byte[] input = new byte[1024];
+        private int inputLength;
+        private boolean isInputClosed;
+        private int served;
+        private boolean isClosingAfterWrite;
+        private long lastActive = System.currentTimeMillis();
+        private final String client;
+
+        Connection(EventLoop eventLoop, SocketChannel channel) {
+            this.eventLoop = eventLoop;
+            this.channel = channel;
+            this.client = server.getAccessLog() == null ? null : clientOf(channel);
+        }
+
+        private static String clientOf(SocketChannel channel) {
+            try {
+                return channel.getRemoteAddress() instanceof InetSocketAddress address
+                        ? address.getAddress().getHostAddress()
+                        : String.valueOf(channel.getRemoteAddress());
+            } catch (IOException ioe) {
+                return "-";
+            }
+        }
+
+        void read() {
+            var readBuffer = eventLoop.readBuffer;
+            try {
+                readBuffer.clear();
+                int bytesRead = channel.read(readBuffer);
+                if (bytesRead == -1) {
+                    close();
+                    return;
+                }
+                server.getMetrics().recordBytesIn(bytesRead);
+
+                readBuffer.flip();
+                if (isInputClosed && upload == null)
+                    return;
+                if (inputLength + bytesRead > input.length)
+                    input = Arrays.copyOf(input, Math.max(input.length * 2, inputLength + bytesRead));
+                readBuffer.get(input, inputLength, bytesRead);
+                inputLength += bytesRead;
+                lastActive = System.currentTimeMillis();
+
+                dispatchNext();
+                if (readInterest() == 0)
+                    key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+            } catch (IOException | RuntimeException e) {
+                System.out.println(e.getMessage());
+                close();
+            }
+        }
+
+        private void dispatchNext() throws IOException {
+            feedUpload();
+            while (!isInputClosed && upload == null && exchanges.size() < MAX_PIPELINED_REQUESTS) {
+                if (!exchanges.isEmpty() && exchanges.peekLast().isExclusive)
+                    return;
+
+                long parseStart = System.nanoTime();
+                if (!parser.parse(input, 0, inputLength))
+                    return;
+
+                var isExclusive = !parser.isMethod("GET") && !parser.isMethod("HEAD");
+                if (isExclusive && !exchanges.isEmpty())
+                    return;
+
+                if (server.isUpload(parser)) {
+                    dispatchUpload(isExclusive, parseStart);
+                    continue;
+                }
+
+                if (server.isBodyTooLarge(parser)) {
+                    rejectPayloadTooLarge(isExclusive, parseStart);
+                    return;
+                }
+
+                int frameLength;
+                try {
+                    frameLength = frameLength(parser, input, inputLength);
+                } catch (PayloadTooLargeException ptle) {
+                    rejectPayloadTooLarge(isExclusive, parseStart);
+                    return;
+                }
+                if (frameLength == -1)
+                    return;
+
+                var frame = Arrays.copyOf(input, frameLength);
+                var head = detachHead(frame);
+                var body = new ByteArrayInputStream(frame, head.getHeadEnd(), frameLength - head.getHeadEnd());
+                var request = new Request(head, server.readBody(head, body));
+                server.getMetrics().recordParse(System.nanoTime() - parseStart);
+                dispatch(request, isExclusive, parseStart, null);
+            }
+        }
+
+        private void dispatchUpload(boolean isExclusive, long parseStart) throws IOException {
+            var contentLength = parser.getContentLength();
+            var request = new Request(detachHead(Arrays.copyOf(input, parser.getHeadEnd())));
+            server.getMetrics().recordParse(System.nanoTime() - parseStart);
+            var body = new UploadStream(this, contentLength);
+            if (dispatch(request, isExclusive, parseStart, body)) {
+                upload = body;
+                isUploadKeepAlive = exchanges.peekLast().isKeepAlive;
+                feedUpload();
+            }
+        }
+
+        private RequestParser detachHead(byte[] frame) {
+            var head = parser;
+            head.rebind(frame);
+            parser = new RequestParser();
+            consume(frame.length);
+            return head;
+        }
+
+        private boolean dispatch(Request request, boolean isExclusive, long parseStart, UploadStream body) {
+            if (!server.getConcurrencyLimiter().tryAcquire()) {
+                reject(new Exchange(isExclusive, false, parseStart), request, server.buildOverloadedResponse());
+                return false;
+            }
+
+            var exchange = new Exchange(isExclusive, request.isKeepAlive() && !server.isDraining(), parseStart);
+            exchanges.add(exchange);
+            served++;
+            isInputClosed = !exchange.isKeepAlive && body == null;
+            handlerExecutor.execute(() -> respond(exchange, request, body));
+            return true;
+        }
+
+        private void feedUpload() {
+            if (upload == null)
+                return;
+
+            consume(upload.offer(input, inputLength));
+            if (upload.isReceived()) {
+                upload = null;
+                if (!isUploadKeepAlive)
+                    isInputClosed = true;
+            }
+        }
+
+        void resumeUpload() {
+            if (upload == null || !key.isValid())
+                return;
+            try {
+                dispatchNext();
+                if (readInterest() != 0)
+                    key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+            } catch (IOException | RuntimeException e) {
+                System.out.println(e.getMessage());
+                close();
+            }
+        }
+
+        private void rejectPayloadTooLarge(boolean isExclusive, long parseStart) {
+            var head = detachHead(Arrays.copyOf(input, parser.getHeadEnd()));
+            reject(new Exchange(isExclusive, false, parseStart), new Request(head), server.buildPayloadTooLargeResponse());
+        }
+
+        private void reject(Exchange exchange, Request request, Response response) {
+            exchanges.add(exchange);
+            isInputClosed = true;
+            var head = response.getHead();
+            var body = (Response.Bytes) response.getBody();
+            server.logAccess(request, response, head.length + body.count(), System.nanoTime() - exchange.start, client);
+            var writes = List.<PendingWrite>of(new BufferWrite(ByteBuffer.wrap(head)), new BufferWrite(ByteBuffer.wrap(body.content())));
+            eventLoop.execute(() -> complete(exchange, writes));
+        }
+
+        void drain() {
+            if (served == 0)
+                return;
+            isInputClosed = true;
+            if (exchanges.isEmpty() && output.isEmpty())
+                close();
+        }
+
+        private void release(Exchange exchange) {
+            server.getConcurrencyLimiter().release(System.nanoTime() - exchange.start);
+        }
+
+        private void consume(int length) {
+            System.arraycopy(input, length, input, 0, inputLength - length);
+            inputLength -= length;
+        }
+
+        private void respond(Exchange exchange, Request request, UploadStream upload) {
+            try {
+                if (upload != null) {
+                    Response response;
+                    try (upload) {
+                        response = server.handleUpload(request, upload);
+                    }
+                    deliver(exchange, request, response);
+                    return;
+                }
+
+                var response = server.handleRequestAsync(request);
+                if (response.isDone()) {
+                    deliver(exchange, request, response.join());
+                    return;
+                }
+                response.whenComplete((completed, error) -> {
+                    if (error != null) {
+                        System.out.println(error.getMessage());
+                        release(exchange);
+                        eventLoop.execute(this::close);
+                    } else {
+                        handlerExecutor.execute(() -> deliver(exchange, request, completed));
+                    }
+                });
+            } catch (IOException | InterruptedException | CompletionException e) {
+                System.out.println(e.getMessage());
+                release(exchange);
+                eventLoop.execute(this::close);
+            }
+        }
+
+        private void deliver(Exchange exchange, Request request, Response response) {
+            try {
+                if (server.isDraining())
+                    response.header("Connection", "close");
+                var headBytes = response.getHead();
+                var head = new BufferWrite(ByteBuffer.wrap(headBytes));
+                long length;
+
+                if (response.getBody() instanceof Response.Bytes bytes) {
+                    var body = new BufferWrite(ByteBuffer.wrap(bytes.content(), bytes.offset(), bytes.count()));
+                    eventLoop.execute(() -> complete(exchange, List.of(head, body)));
+                    length = headBytes.length + bytes.count();
+                } else if (response.getBody() instanceof Response.FileRegion region) {
+                    var body = new FileWrite(region.file(), region.position(), region.count());
+                    eventLoop.execute(() -> complete(exchange, List.of(head, body)));
+                    length = headBytes.length + region.count();
+                } else {
+                    var stream = new StreamWrite(this);
+                    eventLoop.execute(() -> complete(exchange, List.of(stream)));
+                    try (var out = stream.outputStream()) {
+                        length = response.writeTo(out);
+                    }
+                }
+                server.logAccess(request, response, length, System.nanoTime() - exchange.start, client);
+            } catch (IOException | RuntimeException e) {
+                System.out.println(e.getMessage());
+                eventLoop.execute(this::close);
+            } finally {
+                release(exchange);
+            }
+        }
+
+        private void complete(Exchange exchange, List<PendingWrite> response) {
+            exchange.response = response;
+            if (!eventLoop.connections.contains(this)) {
+                response.forEach(PendingWrite::close);
+                return;
+            }
+
+            while (!exchanges.isEmpty() && exchanges.peek().response != null) {
+                var completed = exchanges.poll();
+                output.addAll(completed.response);
+                isClosingAfterWrite = !completed.isKeepAlive;
+            }
+            lastActive = System.currentTimeMillis();
+            flush();
+        }
+
+        void flush() {
+            if (!channel.isOpen())
+                return;
+
+            long writeStart = System.nanoTime();
+            long written = 0;
+            try {
+                while (!output.isEmpty()) {
+                    var pendingWrite = output.peek();
+                    if (pendingWrite instanceof BufferWrite) {
+                        written += gatherWrite();
+                        if (output.peek() instanceof BufferWrite) {
+                            key.interestOps(readInterest() | SelectionKey.OP_WRITE);
+                            return;
+                        }
+                        continue;
+                    }
+
+                    written += pendingWrite.writeTo(channel);
+                    if (!pendingWrite.isDone()) {
+                        if (pendingWrite.isAwaitingData())
+                            key.interestOps(readInterest());
+                        else
+                            key.interestOps(readInterest() | SelectionKey.OP_WRITE);
+                        return;
+                    }
+                    output.poll();
+                }
+
+                if (isClosingAfterWrite || (isInputClosed && exchanges.isEmpty() && server.isDraining())) {
+                    close();
+                    return;
+                }
+
+                dispatchNext();
+                key.interestOps(readInterest());
+            } catch (IOException | RuntimeException e) {
+                System.out.println(e.getMessage());
+                close();
+            } finally {
+                if (written > 0)
+                    server.getMetrics().recordWrite(System.nanoTime() - writeStart, written);
+            }
+        }
+
+        private int readInterest() {
+            if (upload != null && upload.isFull())
+                return 0;
+            return !exchanges.isEmpty() && inputLength >= MAX_BUFFERED_INPUT ? 0 : SelectionKey.OP_READ;
+        }
+
+        private long gatherWrite() throws IOException {
+            var buffers = new ByteBuffer[Math.min(output.size(), MAX_GATHERED_WRITES)];
+            int count = 0;
+            for (var pendingWrite : output) {
+                if (!(pendingWrite instanceof BufferWrite bufferWrite) || count == buffers.length)
+                    break;
+                buffers[count++] = bufferWrite.buffer;
+            }
+
+            long written = channel.write(buffers, 0, count);
+            while (output.peek() instanceof BufferWrite bufferWrite && !bufferWrite.buffer.hasRemaining())
+                output.poll();
+            return written;
+        }
+
+        boolean isIdleSince(long time) {
+            var isStalledUpload = upload != null && !upload.isFull();
+            return (exchanges.isEmpty() || isStalledUpload) && output.isEmpty() && lastActive < time;
+        }
+
+        void close() {
+            if (!eventLoop.connections.remove(this))
+                return;
+
+            openConnections.decrementAndGet();
+            server.getMetrics().connectionClosed();
+            if (upload != null)
+                upload.abort();
+            closePendingWrites();
+            try {
+                channel.close();
+            } catch (IOException ioe) {
+                System.out.println(ioe.getMessage());
+            }
+        }
+
+        private void closePendingWrites() {
+            PendingWrite pendingWrite;
+            while ((pendingWrite = output.poll()) != null)
+                pendingWrite.close();
+
+            Exchange exchange;
+            while ((exchange = exchanges.poll()) != null) {
+                if (exchange.response != null)
+                    exchange.response.forEach(PendingWrite::close);
+            }
+        }
+    }
+
+    private static class Exchange {
+        private final boolean isExclusive;
+        private final boolean isKeepAlive;
+        private final long start;
+        private List<PendingWrite> response;
+
+        Exchange(boolean isExclusive, boolean isKeepAlive, long start) {
+            this.isExclusive = isExclusive;
+            this.isKeepAlive = isKeepAlive;
+            this.start = start;
+        }
+    }
+
+    private interface PendingWrite {
+        long writeTo(SocketChannel channel) throws IOException;
+
+        boolean isDone();
+
+        default boolean isAwaitingData() {
+            return false;
+        }
+
+        default void close() {}
+    }
+
+    private static class BufferWrite implements PendingWrite {
+        private final ByteBuffer buffer;
+
+        BufferWrite(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public long writeTo(SocketChannel channel) throws IOException {
+            return channel.write(buffer);
+        }
+
+        @Override
+        public boolean isDone() {
+            return !buffer.hasRemaining();
+        }
+    }
+
+    private static class FileWrite implements PendingWrite {
+        private final FileChannel fileChannel;
+        private final long length;
+        private long position;
+
+        FileWrite(Path file, long position, long count) throws IOException {
+            this.fileChannel = FileChannel.open(file, StandardOpenOption.READ);
+            this.position = position;
+            this.length = position + count;
+        }
+
+        @Override
+        public long writeTo(SocketChannel channel) throws IOException {
+            long transferred = fileChannel.transferTo(position, length - position, channel);
+            position += transferred;
+            if (position >= length)
+                close();
+            else if (transferred == 0 && position >= fileChannel.size())
+                throw new IOException("File ended before " + length + " bytes were sent");
+            return transferred;
+        }
+
+        @Override
+        public boolean isDone() {
+            return position >= length;
+        }
+
+        @Override
+        public void close() {
+            try {
+                fileChannel.close();
+            } catch (IOException ioe) {
+                System.out.println(ioe.getMessage());
+            }
+        }
+    }
+
+    private static class StreamWrite implements PendingWrite {
+        private final Connection connection;
+        private final ArrayBlockingQueue<ByteBuffer> chunks = new ArrayBlockingQueue<>(STREAM_QUEUE_CAPACITY);
+        private volatile boolean isFinished;
+        private volatile boolean isClosed;
+        private ByteBuffer current;
+
+        StreamWrite(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public long writeTo(SocketChannel channel) throws IOException {
+            long written = 0;
+            while (true) {
+                if (current == null)
+                    current = chunks.poll();
+                if (current == null)
+                    return written;
+
+                written += channel.write(current);
+                if (current.hasRemaining())
+                    return written;
+                current = null;
+            }
+        }
+
+        @Override
+        public boolean isDone() {
+            return current == null && isFinished && chunks.isEmpty();
+        }
+
+        @Override
+        public boolean isAwaitingData() {
+            return current == null && chunks.isEmpty() && !isFinished;
+        }
+
+        @Override
+        public void close() {
+            isClosed = true;
+            chunks.clear();
+        }
+
+        OutputStream outputStream() {
+            return new OutputStream() {
+                private final byte[] buffer = new byte[STREAM_CHUNK_SIZE];
+                private int count;
+
+                @Override
+                public void write(int b) throws IOException {
+                    if (count == buffer.length)
+                        publish();
+                    buffer[count++] = (byte) b;
+                }
+
+                @Override
+                public void write(byte[] bytes, int offset, int length) throws IOException {
+                    while (length > 0) {
+                        if (count == buffer.length)
+                            publish();
+                        int copied = Math.min(length, buffer.length - count);
+                        System.arraycopy(bytes, offset, buffer, count, copied);
+                        count += copied;
+                        offset += copied;
+                        length -= copied;
+                    }
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    publish();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    publish();
+                    isFinished = true;
+                    connection.eventLoop.execute(connection::flush);
+                }
+
+                private void publish() throws IOException {
+                    if (count == 0)
+                        return;
+
+                    var chunk = ByteBuffer.wrap(Arrays.copyOf(buffer, count));
+                    count = 0;
+                    try {
+                        while (!chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                            if (isClosed)
+                                throw new IOException("Connection closed while streaming a response");
+                        }
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Interrupted while streaming a response");
+                    }
+                    connection.eventLoop.execute(connection::flush);
+                }
+            };
+        }
+    }
+
+    private static class UploadStream extends InputStream {
+        private final Connection connection;
+        private final ArrayBlockingQueue<ByteBuffer> chunks = new ArrayBlockingQueue<>(STREAM_QUEUE_CAPACITY);
+        private long remaining;
+        private volatile boolean isReceived;
+        private volatile boolean isClosed;
+        private volatile boolean isAborted;
+        private ByteBuffer current;
+
+        UploadStream(Connection connection, long contentLength) {
+            this.connection = connection;
+            this.remaining = contentLength;
+            this.isReceived = contentLength == 0;
+        }
+
+        int offer(byte[] data, int length) {
+            int count = (int) Math.min(length, remaining);
+            if (count == 0)
+                return 0;
+            if (!isClosed && !chunks.offer(ByteBuffer.wrap(Arrays.copyOf(data, count))))
+                return 0;
+
+            remaining -= count;
+            if (remaining == 0)
+                isReceived = true;
+            return count;
+        }
+
+        boolean isReceived() {
+            return isReceived;
+        }
+
+        boolean isFull() {
+            return !isClosed && chunks.remainingCapacity() == 0;
+        }
+
+        void abort() {
+            isAborted = true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return fill() ? current.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0)
+                return 0;
+            if (!fill())
+                return -1;
+
+            int count = Math.min(length, current.remaining());
+            current.get(bytes, offset, count);
+            return count;
+        }
+
+        private boolean fill() throws IOException {
+            while (current == null || !current.hasRemaining()) {
+                current = null;
+                if (isReceived && chunks.isEmpty())
+                    return false;
+                try {
+                    current = chunks.poll(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while receiving an upload");
+                }
+                if (current != null)
+                    connection.eventLoop.execute(connection::resumeUpload);
+                else if (isAborted)
+                    throw new IOException("Connection closed while receiving an upload");
+            }
+            return true;
+        }
+
+        @Override
+        public void close() {
+            isClosed = true;
+            chunks.clear();
+            connection.eventLoop.execute(connection::resumeUpload);
+        }
+    }
+}
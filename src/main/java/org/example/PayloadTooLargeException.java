@@ -0,0 +1,9 @@
+package org.example;
+
+import java.io.IOException;
+
+public class PayloadTooLargeException extends IOException {
+    public PayloadTooLargeException() {
+        super("Request body exceeds " + Server.MAX_BODY_SIZE + " bytes");
+    }
+}
@@ -0,0 +1,82 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class Request {
+    private static final byte[] EMPTY_BODY = new byte[0];
+    private static final byte[] END_OF_HEAD = "\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+
+    private final RequestParser head;
+    private final byte[] body;
+
+    public Request(RequestParser head, byte[] body) {
+        this.head = head;
+        this.body = body == null ? EMPTY_BODY : body;
+    }
+
+    public Request(RequestParser head) {
+        this(head, EMPTY_BODY);
+    }
+
+    public static RequestParser parseHead(byte[] head) throws IOException {
+        var parser = new RequestParser();
+        if (parser.parse(head, 0, head.length))
+            return parser;
+
+        parser.reset();
+        var terminated = Arrays.copyOf(head, head.length + END_OF_HEAD.length);
+        System.arraycopy(END_OF_HEAD, 0, terminated, head.length, END_OF_HEAD.length);
+        if (!parser.parse(terminated, 0, terminated.length))
+            throw new IOException("Empty request");
+        return parser;
+    }
+
+    public static Request parse(String request) {
+        var headEnd = request.indexOf("\r\n\r\n");
+        var head = headEnd == -1 ? request : request.substring(0, headEnd + 4);
+        var body = headEnd == -1 ? EMPTY_BODY : request.substring(headEnd + 4).getBytes(StandardCharsets.UTF_8);
+        try {
+            return new Request(parseHead(head.getBytes(StandardCharsets.UTF_8)), body);
+        } catch (IOException ioe) {
+            throw new IllegalArgumentException(ioe.getMessage(), ioe);
+        }
+    }
+
+    public String getMethod() {
+        return head.getMethod();
+    }
+
+    public boolean isMethod(String method) {
+        return head.isMethod(method);
+    }
+
+    public String getTarget() {
+        return head.getTarget();
+    }
+
+    public String getHeaderValue(String name) {
+        return head.getHeaderValue(name);
+    }
+
+    public boolean headerContains(String name, String token) {
+        return head.headerContains(name, token);
+    }
+
+    public boolean isKeepAlive() {
+        if (head.headerEquals("Connection", "close"))
+            return false;
+        if (head.isVersion("HTTP/1.1"))
+            return true;
+        return head.headerEquals("Connection", "keep-alive");
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public String getBodyText() {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+}
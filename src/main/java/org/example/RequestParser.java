@@ -0,0 +1,264 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class RequestParser {
+    public static final int MAX_LINE_LENGTH = 8192;
+    public static final int MAX_HEAD_SIZE = 65536;
+    public static final int MAX_HEADERS = 100;
+
+    private static final int INITIAL_HEADERS = 16;
+
+    private int[] headers = new int[INITIAL_HEADERS * 4];
+    private byte[] buffer;
+    private int headerCount;
+    private int start = -1;
+    private int position;
+    private int lineStart;
+    private int headStart = -1;
+    private int headEnd = -1;
+    private int methodStart, methodEnd;
+    private int targetStart, targetEnd;
+    private int versionStart, versionEnd;
+
+    public boolean parse(byte[] buffer, int offset, int limit) throws IOException {
+        this.buffer = buffer;
+        if (headEnd != -1)
+            return true;
+        if (start == -1) {
+            start = offset;
+            position = offset;
+            lineStart = offset;
+        }
+
+        while (position < limit) {
+            if (buffer[position++] != '\n') {
+                if (position - lineStart > MAX_LINE_LENGTH)
+                    throw new IOException("Request line exceeds " + MAX_LINE_LENGTH + " bytes");
+                continue;
+            }
+
+            int lineEnd = position - 1;
+            if (lineEnd > lineStart && buffer[lineEnd - 1] == '\r')
+                lineEnd--;
+            if (position - start > MAX_HEAD_SIZE)
+                throw new IOException("Request header exceeds " + MAX_HEAD_SIZE + " bytes");
+            parseLine(lineStart, lineEnd);
+            lineStart = position;
+            if (headEnd != -1)
+                return true;
+        }
+
+        if (position - start > MAX_HEAD_SIZE)
+            throw new IOException("Request header exceeds " + MAX_HEAD_SIZE + " bytes");
+        return false;
+    }
+
+    public void rebind(byte[] buffer) {
+        this.buffer = buffer;
+    }
+
+    public void reset() {
+        buffer = null;
+        headerCount = 0;
+        start = -1;
+        position = 0;
+        lineStart = 0;
+        headStart = -1;
+        headEnd = -1;
+    }
+
+    private void parseLine(int start, int end) throws IOException {
+        if (headStart == -1) {
+            if (start < end) {
+                headStart = start;
+                parseRequestLine(start, end);
+            }
+            return;
+        }
+
+        if (start == end) {
+            headEnd = position;
+            return;
+        }
+        parseHeaderLine(start, end);
+    }
+
+    private void parseRequestLine(int start, int end) throws IOException {
+        while (end > start && isWhitespace(buffer[end - 1]))
+            end--;
+
+        methodStart = start;
+        methodEnd = indexOf(' ', start, end);
+        if (methodEnd == methodStart || methodEnd == end)
+            throw new IOException("Malformed request line");
+
+        targetStart = methodEnd + 1;
+        targetEnd = indexOf(' ', targetStart, end);
+        if (targetEnd == targetStart)
+            throw new IOException("Malformed request line");
+
+        versionStart = Math.min(targetEnd + 1, end);
+        versionEnd = end;
+    }
+
+    private void parseHeaderLine(int start, int end) throws IOException {
+        if (isWhitespace(buffer[start]))
+            throw new IOException("Folded header lines are not supported");
+        if (headerCount == MAX_HEADERS)
+            throw new IOException("Request has more than " + MAX_HEADERS + " headers");
+
+        int colon = indexOf(':', start, end);
+        if (colon == start || colon == end)
+            throw new IOException("Malformed header line");
+        for (int i = start; i < colon; i++) {
+            if (isWhitespace(buffer[i]))
+                throw new IOException("Malformed header name");
+        }
+
+        int valueStart = colon + 1;
+        while (valueStart < end && isWhitespace(buffer[valueStart]))
+            valueStart++;
+        int valueEnd = end;
+        while (valueEnd > valueStart && isWhitespace(buffer[valueEnd - 1]))
+            valueEnd--;
+
+        int index = headerCount++ * 4;
+        if (index == headers.length)
+            headers = Arrays.copyOf(headers, Math.min(headers.length * 2, MAX_HEADERS * 4));
+        headers[index] = start;
+        headers[index + 1] = colon;
+        headers[index + 2] = valueStart;
+        headers[index + 3] = valueEnd;
+    }
+
+    private int indexOf(char target, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer[i] == target)
+                return i;
+        }
+        return to;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t';
+    }
+
+    private static byte toLowerCase(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    private boolean equalsIgnoreCase(int start, int end, String value) {
+        if (end - start != value.length())
+            return false;
+        for (int i = 0; i < value.length(); i++) {
+            if (toLowerCase(buffer[start + i]) != toLowerCase((byte) value.charAt(i)))
+                return false;
+        }
+        return true;
+    }
+
+    private boolean containsIgnoreCase(int start, int end, String token) {
+        for (int i = start; i <= end - token.length(); i++) {
+            if (equalsIgnoreCase(i, i + token.length(), token))
+                return true;
+        }
+        return false;
+    }
+
+    private String string(int start, int end) {
+        return new String(buffer, start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    public boolean isComplete() {
+        return headEnd != -1;
+    }
+
+    public int getHeadEnd() {
+        return headEnd;
+    }
+
+    public boolean isMethod(String method) {
+        return methodEnd - methodStart == method.length() && regionMatches(methodStart, method);
+    }
+
+    private boolean regionMatches(int start, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (buffer[start + i] != value.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    public String getMethod() {
+        return string(methodStart, methodEnd);
+    }
+
+    public String getTarget() {
+        return new String(buffer, targetStart, targetEnd - targetStart, StandardCharsets.UTF_8);
+    }
+
+    public String getVersion() {
+        return string(versionStart, versionEnd);
+    }
+
+    public boolean isVersion(String version) {
+        return versionEnd - versionStart == version.length() && regionMatches(versionStart, version);
+    }
+
+    public int getHeaderCount() {
+        return headerCount;
+    }
+
+    public String getHeaderName(int index) {
+        return string(headers[index * 4], headers[index * 4 + 1]);
+    }
+
+    public String getHeaderValue(int index) {
+        return string(headers[index * 4 + 2], headers[index * 4 + 3]);
+    }
+
+    public int indexOfHeader(String name) {
+        for (int i = 0; i < headerCount; i++) {
+            if (equalsIgnoreCase(headers[i * 4], headers[i * 4 + 1], name))
+                return i;
+        }
+        return -1;
+    }
+
+    public String getHeaderValue(String name) {
+        int index = indexOfHeader(name);
+        return index == -1 ? null : getHeaderValue(index);
+    }
+
+    public boolean headerContains(String name, String token) {
+        int index = indexOfHeader(name);
+        return index != -1 && containsIgnoreCase(headers[index * 4 + 2], headers[index * 4 + 3], token);
+    }
+
+    public boolean headerEquals(String name, String value) {
+        int index = indexOfHeader(name);
+        return index != -1 && equalsIgnoreCase(headers[index * 4 + 2], headers[index * 4 + 3], value);
+    }
+
+    public long getContentLength() throws IOException {
+        int index = indexOfHeader("Content-Length");
+        if (index == -1)
+            return -1;
+
+        int start = headers[index * 4 + 2];
+        int end = headers[index * 4 + 3];
+        if (start == end || end - start > 18)
+            throw new IOException("Invalid Content-Length");
+
+        long contentLength = 0;
+        for (int i = start; i < end; i++) {
+            if (buffer[i] < '0' || buffer[i] > '9')
+                throw new IOException("Invalid Content-Length");
+            contentLength = contentLength * 10 + (buffer[i] - '0');
+        }
+        return contentLength;
+    }
+}
@@ -0,0 +1,340 @@
+package org.example;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+
+public class Response {
+    private static final String CLRF = "\r\n";
+    private static final byte[] CLRF_BYTES = CLRF.getBytes(StandardCharsets.ISO_8859_1);
+    private static final byte[] STATUS_PREFIX = "HTTP/1.1 ".getBytes(StandardCharsets.ISO_8859_1);
+    private static final byte[] SERVER_HEADER = ("Server: httpServer1.1" + CLRF + CLRF).getBytes(StandardCharsets.ISO_8859_1);
+    private static final int BUFFER_SIZE = 8192;
+    private final String status;
+    private final String contentType;
+    private final Body body;
+    private final long declaredLength;
+    private final LinkedHashMap<String, String> headers = new LinkedHashMap<>();
+
+    private Response(String status, String contentType, Body body) {
+        this(status, contentType, body, body.length());
+    }
+
+    private Response(String status, String contentType, Body body, long declaredLength) {
+        this.status = status;
+        this.contentType = contentType;
+        this.body = body;
+        this.declaredLength = declaredLength;
+    }
+
+    public static Response of(String status, String contentType, byte[] content) {
+        return new Response(status, contentType, new Bytes(content));
+    }
+
+    public static Response ofFile(String status, String contentType, Path file) throws IOException {
+        return ofFile(status, contentType, file, 0, Files.size(file));
+    }
+
+    public static Response ofFile(String status, String contentType, Path file, long position, long count) {
+        return new Response(status, contentType, new FileRegion(file, position, count));
+    }
+
+    public static Response ofStream(String status, String contentType, InputStream in, long length) {
+        return new Response(status, contentType, new Stream(in, length));
+    }
+
+    public static Response ofGenerator(String status, String contentType, Generator generator) {
+        return new Response(status, contentType, new Generated(generator));
+    }
+
+    public static Response notModified(Response response) {
+        var notModified = new Response("304 Not Modified", "", new Bytes(new byte[0]));
+        for (var name : new String[]{"ETag", "Last-Modified", "Vary"}) {
+            if (response.headers.containsKey(name))
+                notModified.header(name, response.headers.get(name));
+        }
+        return notModified;
+    }
+
+    public Response withoutBody() {
+        if (body instanceof Stream stream) {
+            try {
+                stream.in().close();
+            } catch (IOException ioe) {
+                System.out.println(ioe.getMessage());
+            }
+        }
+        var response = new Response(status, contentType, new Bytes(new byte[0]), declaredLength);
+        response.headers.putAll(headers);
+        return response;
+    }
+
+    public Response withBody(String status, String contentType, Body body) {
+        var response = new Response(status, contentType, body);
+        response.headers.putAll(headers);
+        return response;
+    }
+
+    public Response header(String name, String value) {
+        headers.put(name, value);
+        return this;
+    }
+
+    public byte[] getHead() {
+        return head(declaredLength);
+    }
+
+    private byte[] head(long contentLength) {
+        var head = new ByteArrayOutputStream(256);
+        head.writeBytes(STATUS_PREFIX);
+        head.writeBytes(status.getBytes(StandardCharsets.ISO_8859_1));
+        head.writeBytes(CLRF_BYTES);
+        head.writeBytes(MimeTypes.encodeHeader(contentType));
+        var headers = new StringBuilder();
+        if (contentLength < 0)
+            headers.append("Transfer-Encoding: chunked").append(CLRF);
+        else if (!status.startsWith("304"))
+            headers.append("Content-Length: ").append(contentLength).append(CLRF);
+        for (var header : this.headers.entrySet())
+            headers.append(header.getKey()).append(": ").append(header.getValue()).append(CLRF);
+        head.writeBytes(headers.toString().getBytes(StandardCharsets.ISO_8859_1));
+        head.writeBytes(SERVER_HEADER);
+        return head.toByteArray();
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getHeader(String name) {
+        return headers.get(name);
+    }
+
+    public Body getBody() {
+        return body;
+    }
+
+    public long getContentLength() {
+        return body.length();
+    }
+
+    public Response compress(String encoding) {
+        var compressed = ofGenerator(status, contentType, out -> {
+            var compressor = Compression.compressingStream(out, encoding);
+            body.writeTo(compressor);
+            compressor.finish();
+        });
+        compressed.headers.putAll(headers);
+        return compressed
+                .header("Content-Encoding", encoding)
+                .header("Vary", "Accept-Encoding");
+    }
+
+    public long writeTo(OutputStream out) throws IOException {
+        if (body.length() < 0) {
+            var bodyStream = new BodyOutputStream(out);
+            body.writeTo(bodyStream);
+            bodyStream.finish();
+            return bodyStream.written;
+        }
+
+        var head = getHead();
+        out.write(head);
+        if (body instanceof Bytes bytes)
+            bytes.writeTo(out);
+        else if (body instanceof FileRegion region)
+            region.transferTo(Channels.newChannel(out));
+        else if (body instanceof Stream stream)
+            stream.copyTo(out);
+        return head.length + body.length();
+    }
+
+    public long writeTo(WritableByteChannel channel) throws IOException {
+        var head = ByteBuffer.wrap(getHead());
+        if (body instanceof Bytes bytes && channel instanceof GatheringByteChannel gatheringChannel) {
+            var buffers = new ByteBuffer[]{head, ByteBuffer.wrap(bytes.content(), bytes.offset(), bytes.count())};
+            while (head.hasRemaining() || buffers[1].hasRemaining())
+                gatheringChannel.write(buffers);
+        } else if (body instanceof FileRegion region) {
+            while (head.hasRemaining())
+                channel.write(head);
+            region.transferTo(channel);
+        } else {
+            return writeTo(Channels.newOutputStream(channel));
+        }
+        return head.capacity() + body.length();
+    }
+
+    public byte[] toByteArray() throws IOException {
+        var out = new ByteArrayOutputStream();
+        writeTo(out);
+        return out.toByteArray();
+    }
+
+    public interface Generator {
+        void generate(OutputStream out) throws IOException;
+    }
+
+    public sealed interface Body permits Bytes, FileRegion, Stream, Generated {
+        long length();
+
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    public record Bytes(byte[] content, int offset, int count) implements Body {
+        public Bytes(byte[] content) {
+            this(content, 0, content.length);
+        }
+
+        public long length() {
+            return count;
+        }
+
+        public void writeTo(OutputStream out) throws IOException {
+            out.write(content, offset, count);
+        }
+    }
+
+    public record FileRegion(Path file, long position, long count) implements Body {
+        public long length() {
+            return count;
+        }
+
+        public void writeTo(OutputStream out) throws IOException {
+            transferTo(Channels.newChannel(out));
+        }
+
+        public void transferTo(WritableByteChannel channel) throws IOException {
+            try (var fileChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long transferredTotal = 0;
+                while (transferredTotal < count) {
+                    long transferred = fileChannel.transferTo(position + transferredTotal, count - transferredTotal, channel);
+                    if (transferred <= 0)
+                        throw new IOException("File " + file + " ended before " + count + " bytes were sent");
+                    transferredTotal += transferred;
+                }
+            }
+        }
+    }
+
+    public record Stream(InputStream in, long length) implements Body {
+        public void writeTo(OutputStream out) throws IOException {
+            try (in) {
+                in.transferTo(out);
+            }
+        }
+
+        void copyTo(OutputStream out) throws IOException {
+            try (in) {
+                var buffer = new byte[BUFFER_SIZE];
+                long remaining = length;
+                while (remaining > 0) {
+                    int bytesRead = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                    if (bytesRead == -1)
+                        throw new IOException("Stream ended before " + length + " bytes were sent");
+                    out.write(buffer, 0, bytesRead);
+                    remaining -= bytesRead;
+                }
+            }
+        }
+    }
+
+    public record Generated(Generator generator) implements Body {
+        public long length() {
+            return -1;
+        }
+
+        public void writeTo(OutputStream out) throws IOException {
+            generator.generate(out);
+        }
+    }
+
+    private class BodyOutputStream extends OutputStream {
+        private final OutputStream out;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int count;
+        private boolean isChunked;
+        private long written;
+
+        BodyOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == buffer.length)
+                writeChunk();
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (count == buffer.length)
+                    writeChunk();
+                int copied = Math.min(length, buffer.length - count);
+                System.arraycopy(bytes, offset, buffer, count, copied);
+                count += copied;
+                offset += copied;
+                length -= copied;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (isChunked) {
+                writeChunk();
+                out.flush();
+            }
+        }
+
+        void finish() throws IOException {
+            if (!isChunked) {
+                emit(head(count));
+                emit(buffer, 0, count);
+                return;
+            }
+
+            writeChunk();
+            emit(("0" + CLRF + CLRF).getBytes());
+        }
+
+        private void writeChunk() throws IOException {
+            if (!isChunked) {
+                emit(head(-1));
+                isChunked = true;
+            }
+            if (count == 0)
+                return;
+
+            emit((Integer.toHexString(count) + CLRF).getBytes());
+            emit(buffer, 0, count);
+            emit(CLRF.getBytes());
+            count = 0;
+        }
+
+        private void emit(byte[] bytes) throws IOException {
+            emit(bytes, 0, bytes.length);
+        }
+
+        private void emit(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+            written += length;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.example;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class ResponseScheduler {
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    public ResponseScheduler(int threads) {
+        var factory = Thread.ofPlatform().name("response-scheduler-", 0).daemon().factory();
+        scheduler = new ScheduledThreadPoolExecutor(threads, factory);
+        scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    public <T> CompletableFuture<T> schedule(long delayMillis, Callable<T> task) {
+        var future = new CompletableFuture<T>();
+        pendingCount.incrementAndGet();
+        var scheduled = scheduler.schedule(() -> {
+            try {
+                future.complete(task.call());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+
+        future.whenComplete((result, error) -> {
+            pendingCount.decrementAndGet();
+            scheduled.cancel(false);
+        });
+        return future;
+    }
+
+    public <T> CompletableFuture<T> completeOnTimeout(CompletableFuture<T> future, long timeoutMillis, Supplier<T> onTimeout) {
+        var timeout = schedule(timeoutMillis, () -> future.isDone() || future.complete(onTimeout.get()));
+        future.whenComplete((result, error) -> timeout.cancel(false));
+        return future;
+    }
+
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    public int getThreadCount() {
+        return scheduler.getPoolSize();
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,122 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public class Router {
+    public static final String ANY_METHOD = "*";
+    private final Node root = new Node();
+
+    public void register(String method, String pattern, Handler handler) {
+        var node = root;
+        var segments = segmentsOf(pattern);
+        for (int i = 0; i < segments.size(); i++) {
+            var segment = segments.get(i);
+            if (segment.startsWith("{*") && segment.endsWith("}")) {
+                if (i != segments.size() - 1)
+                    throw new IllegalArgumentException("Catch-all parameter must be last in " + pattern);
+                node = node.remainderFor(segment.substring(2, segment.length() - 1));
+            } else if (segment.startsWith("{") && segment.endsWith("}")) {
+                node = node.parameterFor(segment.substring(1, segment.length() - 1));
+            } else {
+                node = node.children.computeIfAbsent(segment, key -> new Node());
+            }
+        }
+
+        if (node.handlers.putIfAbsent(method, handler) != null)
+            throw new IllegalArgumentException("Route already registered: " + method + " " + pattern);
+        node.pattern = pattern;
+    }
+
+    public Match match(String method, String path) {
+        var queryStart = path.indexOf('?');
+        if (queryStart != -1)
+            path = path.substring(0, queryStart);
+
+        var parameters = new HashMap<String, String>();
+        var node = match(root, segmentsOf(path), 0, method, parameters);
+        return node == null ? null : new Match(node.handlerFor(method), parameters, node.pattern);
+    }
+
+    private Node match(Node node, List<String> segments, int index, String method, Map<String, String> parameters) {
+        if (index == segments.size()) {
+            if (node.handlerFor(method) != null)
+                return node;
+        } else {
+            var child = node.children.get(segments.get(index));
+            if (child != null) {
+                var matched = match(child, segments, index + 1, method, parameters);
+                if (matched != null)
+                    return matched;
+            }
+
+            if (node.parameter != null) {
+                var matched = match(node.parameter, segments, index + 1, method, parameters);
+                if (matched != null) {
+                    parameters.put(node.parameterName, segments.get(index));
+                    return matched;
+                }
+            }
+        }
+
+        if (node.remainder != null && node.remainder.handlerFor(method) != null) {
+            parameters.put(node.remainderName, String.join("/", segments.subList(index, segments.size())));
+            return node.remainder;
+        }
+
+        return null;
+    }
+
+    private static List<String> segmentsOf(String path) {
+        var segments = new ArrayList<String>();
+        int start = 0;
+        for (int i = 0; i <= path.length(); i++) {
+            if (i == path.length() || path.charAt(i) == '/') {
+                if (i > start)
+                    segments.add(path.substring(start, i));
+                start = i + 1;
+            }
+        }
+        return segments;
+    }
+
+    public record Match(Handler handler, Map<String, String> parameters, String pattern) {}
+
+    private static class Node {
+        private final HashMap<String, Node> children = new HashMap<>();
+        private final HashMap<String, Handler> handlers = new HashMap<>();
+        private Node parameter;
+        private String parameterName;
+        private Node remainder;
+        private String remainderName;
+        private String pattern;
+
+        Node parameterFor(String name) {
+            if (parameter == null) {
+                parameter = new Node();
+                parameterName = name;
+            } else if (!Objects.equals(parameterName, name)) {
+                throw new IllegalArgumentException("Conflicting parameter names {" + parameterName + "} and {" + name + "}");
+            }
+            return parameter;
+        }
+
+        Node remainderFor(String name) {
+            if (remainder == null) {
+                remainder = new Node();
+                remainderName = name;
+            } else if (!Objects.equals(remainderName, name)) {
+                throw new IllegalArgumentException("Conflicting parameter names {*" + remainderName + "} and {*" + name + "}");
+            }
+            return remainder;
+        }
+
+        Handler handlerFor(String method) {
+            var handler = handlers.get(method);
+            return handler == null ? handlers.get(ANY_METHOD) : handler;
+        }
+    }
+}
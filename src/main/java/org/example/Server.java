@@ -1,160 +1,737 @@
 package org.example;
 
 import java.io.*;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.StandardSocketOptions;
+import java.net.SocketTimeoutException;
+import java.net.URLDecoder;
+import java.nio.channels.ServerSocketChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Server {
     private static final String CLRF = "\r\n";
+    private static final int MAX_HEADER_SIZE = 65536;
+    public static final int MAX_BODY_SIZE = 1 << 20;
+    private static final int PIPELINE_BUFFER_SIZE = 65536;
+    private static final byte[] OVERLOADED_BODY = "Server is overloaded, retry later.\n".getBytes(StandardCharsets.UTF_8);
+    private static final String RETRY_AFTER_SECONDS = "1";
+    private static final byte[] PAYLOAD_TOO_LARGE_BODY = ("Request body exceeds " + MAX_BODY_SIZE + " bytes.\n").getBytes(StandardCharsets.UTF_8);
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter
+            .ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US)
+            .withZone(ZoneOffset.UTC);
     private ServerSocket serverSocket;
     private int port = 80;
+    private int backlog = 50;
+    private int maxConcurrentRequests = ConcurrencyLimiter.UNLIMITED;
+    private String limiterMode = "fixed";
+    private ConcurrencyLimiter concurrencyLimiter = ConcurrencyLimiter.fixed(ConcurrencyLimiter.UNLIMITED);
     private String root = ".";
-    public Boolean isRunnable = true;
-    private GuessingGame guessingGame = new GuessingGame();
-
-    public Server() {}
+    private int keepAliveTimeout = 5000;
+    private String executorMode = "virtual";
+    private int poolSize = 200;
+    private ConnectionExecutor connectionExecutor;
+    private volatile List<ConnectionExecutor> connectionExecutors = List.of();
+    private List<ServerSocketChannel> listeners = List.of();
+    private int acceptorCount = 1;
+    private String engine = "blocking";
+    private int eventLoopCount = Runtime.getRuntime().availableProcessors();
+    private NioServer nioServer;
+    private final StaticFileCache staticFileCache = new StaticFileCache(64 * 1024 * 1024, 1024 * 1024, 1000);
+    private volatile DirectoryListingCache directoryListingCache;
+    private final TemplateCache templateCache = new TemplateCache(1000);
+    private final ResponseScheduler responseScheduler = new ResponseScheduler(1);
+    private final Metrics metrics = new Metrics();
+    private MimeTypes mimeTypes = MimeTypes.defaults();
+    public volatile Boolean isRunnable = true;
+    private volatile boolean isDraining;
+    private int drainTimeout = 30;
+    private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+    private final Set<Socket> idleSockets = ConcurrentHashMap.newKeySet();
+    private String sessionStore = "memory";
+    private String accessLogFile;
+    private String accessLogPolicy = AccessLog.DROP;
+    private AccessLog accessLog;
+    private volatile SessionManager sessionManager;
+    private final Router router = new Router();
+
+    public Server() {
+        registerRoutes();
+        metrics.setConcurrencyLimiter(concurrencyLimiter);
+    }
 
     public void run() {
         printStartupConfig();
-        new Thread(this::handleIO).start();
+        openAccessLog();
+        if (Objects.equals("nio", engine))
+            handleNIO();
+        else
+            new Thread(this::handleIO).start();
+    }
+
+    public void handleNIO() {
+        try {
+            connectionExecutor = ConnectionExecutor.of(executorMode, poolSize);
+            nioServer = new NioServer(this, connectionExecutor, eventLoopCount, keepAliveTimeout);
+            nioServer.start(port, backlog, acceptorCount);
+            this.serverSocket = nioServer.getSocket();
+        } catch (IOException ioe) {
+            System.out.println(ioe.getMessage());
+        }
     }
 
     public void handleIO() {
+        List<ServerSocketChannel> channels;
         try {
-            this.serverSocket = new ServerSocket(port);
+            channels = openListeners(port, backlog, acceptorCount);
         } catch (IOException ioe) {
             System.out.println(ioe.getMessage());
+            return;
         }
 
+        var executors = new ArrayList<ConnectionExecutor>();
+        for (int i = 0; i < channels.size(); i++)
+            executors.add(ConnectionExecutor.of(executorMode, Math.max(1, poolSize / channels.size())));
+        connectionExecutor = executors.get(0);
+        connectionExecutors = List.copyOf(executors);
+        listeners = channels;
+        this.serverSocket = channels.get(0).socket();
+
+        for (int i = 1; i < channels.size(); i++) {
+            var listener = channels.get(i).socket();
+            var executor = executors.get(i);
+            new Thread(() -> acceptConnections(listener, executor), "acceptor-" + i).start();
+        }
+        acceptConnections(serverSocket, connectionExecutor);
+    }
+
+    private void acceptConnections(ServerSocket listener, ConnectionExecutor executor) {
         while (isRunnable) {
             try {
-                var clientSocket = this.serverSocket.accept();
+                var clientSocket = listener.accept();
+                if (concurrencyLimiter.isSaturated())
+                    rejectConnection(clientSocket);
+                else
+                    executor.execute(() -> handleConnection(clientSocket));
+            } catch (IOException ioe) {
+                if (listener.isClosed())
+                    return;
+                System.out.println(ioe.getMessage());
+            }
+        }
+    }
+
+    public static List<ServerSocketChannel> openListeners(int port, int backlog, int count) throws IOException {
+        var listeners = new ArrayList<ServerSocketChannel>();
+        try {
+            for (int i = 0; i < count; i++) {
+                var channel = ServerSocketChannel.open();
+                listeners.add(channel);
+                if (count > 1) {
+                    if (!channel.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT)) {
+                        System.out.println("SO_REUSEPORT is not supported here, using a single acceptor");
+                        count = 1;
+                    } else {
+                        channel.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+                    }
+                }
+                var boundPort = i == 0 ? port : listeners.get(0).socket().getLocalPort();
+                channel.bind(new InetSocketAddress(boundPort), backlog);
+            }
+        } catch (IOException ioe) {
+            for (var listener : listeners)
+                listener.close();
+            throw ioe;
+        }
+        return listeners;
+    }
+
+    private void closeListeners() throws IOException {
+        if (serverSocket != null)
+            serverSocket.close();
+        for (var listener : listeners)
+            listener.close();
+    }
 
-                new Thread(() -> {
+    public void handleConnection(Socket clientSocket) {
+        metrics.connectionOpened();
+        var client = accessLog == null ? null : clientSocket.getInetAddress().getHostAddress();
+        openSockets.add(clientSocket);
+        try (clientSocket) {
+            clientSocket.setSoTimeout(keepAliveTimeout);
+            var in = new BufferedInputStream(new Metrics.CountingInputStream(clientSocket.getInputStream(), metrics));
+            var out = new BufferedOutputStream(clientSocket.getOutputStream(), PIPELINE_BUFFER_SIZE);
+            var channel = clientSocket.getChannel();
+            var isBuffering = false;
+            var served = 0;
+
+            while (true) {
+                byte[] head;
+                if (served > 0) {
+                    idleSockets.add(clientSocket);
                     try {
-                        var in = clientSocket.getInputStream();
-                        var out = clientSocket.getOutputStream();
-                        var response = getResponse(in);
-                        out.write(response);
-                        clientSocket.close();
-                    } catch (IOException | InterruptedException ioe) {
-                        System.out.println(ioe.getMessage());
+                        if (isDraining || !isRunnable)
+                            break;
+                        head = readHead(in);
+                    } finally {
+                        idleSockets.remove(clientSocket);
+                    }
+                } else {
+                    head = readHead(in);
+                }
+                if (head.length == 0)
+                    break;
+                served++;
+
+                var parseStart = System.nanoTime();
+                var parser = Request.parseHead(head);
+                metrics.recordParse(System.nanoTime() - parseStart);
+                if (!concurrencyLimiter.tryAcquire()) {
+                    var overloaded = buildOverloadedResponse();
+                    var bytesWritten = overloaded.writeTo(out);
+                    out.flush();
+                    logAccess(new Request(parser), overloaded, bytesWritten, System.nanoTime() - parseStart, client);
+                    break;
+                }
+
+                try {
+                    Request request;
+                    Response response;
+                    if (isUpload(parser)) {
+                        request = new Request(parser);
+                        try (var body = new BodyInputStream(in, parser.getContentLength())) {
+                            response = handleUpload(request, body);
+                        }
+                    } else if (isBodyTooLarge(parser)) {
+                        request = new Request(parser);
+                        response = buildPayloadTooLargeResponse();
+                    } else {
+                        byte[] body;
+                        try {
+                            body = readBody(parser, in);
+                        } catch (PayloadTooLargeException ptle) {
+                            body = null;
+                        }
+                        request = new Request(parser, body);
+                        response = body == null ? buildPayloadTooLargeResponse() : handleRequest(request);
                     }
-                }).start();
 
-            } catch (IOException ioe) {
-                System.out.println(ioe.getMessage());
+                    var isKeepAlive = request.isKeepAlive() && !isDraining && !Objects.equals("close", response.getHeader("Connection"));
+                    if (isDraining)
+                        response.header("Connection", "close");
+                    var isPipelined = isKeepAlive && in.available() > 0;
+                    var writeStart = System.nanoTime();
+                    long bytesWritten;
+                    if (channel != null && !isPipelined && !isBuffering) {
+                        bytesWritten = response.writeTo(channel);
+                    } else {
+                        bytesWritten = response.writeTo(out);
+                        if (!isPipelined)
+                            out.flush();
+                        isBuffering = isPipelined;
+                    }
+                    metrics.recordWrite(System.nanoTime() - writeStart, bytesWritten);
+                    logAccess(request, response, bytesWritten, System.nanoTime() - parseStart, client);
+
+                    if (!isKeepAlive)
+                        break;
+                } finally {
+                    concurrencyLimiter.release(System.nanoTime() - parseStart);
+                }
             }
+        } catch (SocketTimeoutException ste) {
+            return;
+        } catch (IOException | InterruptedException ioe) {
+            if (!clientSocket.isClosed())
+                System.out.println(ioe.getMessage());
+        } finally {
+            openSockets.remove(clientSocket);
+            metrics.connectionClosed();
         }
     }
 
-    public void stop() throws IOException {
+    private void rejectConnection(Socket clientSocket) {
+        concurrencyLimiter.recordRejected();
+        try (clientSocket) {
+            buildOverloadedResponse().writeTo(clientSocket.getOutputStream());
+        } catch (IOException ioe) {
+            System.out.println(ioe.getMessage());
+        }
+    }
+
+    public Response buildOverloadedResponse() {
+        return Response.of("503 Service Unavailable", "Content-Type: text/plain\r\n", OVERLOADED_BODY)
+                .header("Retry-After", RETRY_AFTER_SECONDS)
+                .header("Connection", "close");
+    }
+
+    public Response buildPayloadTooLargeResponse() {
+        return Response.of("413 Payload Too Large", "Content-Type: text/plain\r\n", PAYLOAD_TOO_LARGE_BODY)
+                .header("Connection", "close");
+    }
+
+    public void stopGracefully() {
+        try {
+            stopGracefully(drainTimeout * 1000L);
+        } catch (IOException | InterruptedException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    public DrainStats stopGracefully(long timeoutMillis) throws IOException, InterruptedException {
+        var start = System.currentTimeMillis();
+        var connectionsAtStart = getOpenConnectionCount();
+        var requestsAtStart = concurrencyLimiter.getInFlight();
+        isDraining = true;
         isRunnable = false;
-        this.serverSocket.close();
+        if (nioServer != null)
+            nioServer.drain();
+        else
+            closeListeners();
+        for (var socket : idleSockets)
+            shutdownInput(socket);
+
+        var deadline = start + timeoutMillis;
+        while (System.currentTimeMillis() < deadline && (getOpenConnectionCount() > 0 || concurrencyLimiter.getInFlight() > 0))
+            Thread.sleep(10);
+
+        var stats = new DrainStats(connectionsAtStart, requestsAtStart, getOpenConnectionCount(),
+                concurrencyLimiter.getInFlight(), System.currentTimeMillis() - start);
+        stop();
+        System.out.println(stats);
+        return stats;
     }
 
-    private String responseStatus(String status) {
-        return "HTTP/1.1 " + status + CLRF;
+    private void shutdownInput(Socket socket) {
+        try {
+            socket.shutdownInput();
+        } catch (IOException ioe) {
+            System.out.println(ioe.getMessage());
+        }
+    }
+
+    private int getOpenConnectionCount() {
+        return metrics.getActiveConnections() + getQueuedConnections();
+    }
+
+    public boolean isDraining() {
+        return isDraining;
+    }
+
+    public void stop() throws IOException {
+        isRunnable = false;
+        if (nioServer != null)
+            nioServer.stop();
+        closeListeners();
+        for (var socket : openSockets) {
+            try {
+                socket.close();
+            } catch (IOException ioe) {
+                System.out.println(ioe.getMessage());
+            }
+        }
+        if (connectionExecutor != null)
+            connectionExecutor.shutdown();
+        for (var executor : connectionExecutors)
+            executor.shutdown();
+        if (directoryListingCache != null)
+            directoryListingCache.close();
+        responseScheduler.shutdown();
+        if (accessLog != null)
+            accessLog.close();
     }
 
     public byte[] getResponse(InputStream inputStream) throws IOException, InterruptedException {
-        var request = getRequest(inputStream);
-        var parsedRequest = parseRequest(request);
-        var filePath = parsedRequest.get("path");
+        return handleRequest(readRequest(inputStream)).toByteArray();
+    }
+
+    public byte[] getResponse(String request) throws IOException, InterruptedException {
+        return handleRequest(request).toByteArray();
+    }
+
+    public Response handleRequest(String request) throws IOException, InterruptedException {
+        return handleRequest(Request.parse(request));
+    }
+
+    public Response handleRequest(Request request) throws IOException, InterruptedException {
+        var start = System.nanoTime();
+        var match = router.match(request.getMethod(), request.getTarget());
+        var encoding = Compression.negotiate(request.getHeaderValue("Accept-Encoding"));
+        var response = finishResponse(request, routeRequest(request, match, encoding), encoding);
+        metrics.recordHandle(routeOf(match), response.getStatus(), System.nanoTime() - start);
+        return response;
+    }
+
+    public CompletableFuture<Response> handleRequestAsync(String request) throws IOException, InterruptedException {
+        return handleRequestAsync(Request.parse(request));
+    }
+
+    public CompletableFuture<Response> handleRequestAsync(Request request) throws IOException, InterruptedException {
+        var match = router.match(request.getMethod(), request.getTarget());
+        if (match == null || !(match.handler() instanceof AsyncHandler asyncHandler))
+            return CompletableFuture.completedFuture(handleRequest(request));
+
+        var start = System.nanoTime();
+        var encoding = Compression.negotiate(request.getHeaderValue("Accept-Encoding"));
+        return asyncHandler.handleAsync(request, match.parameters()).thenApply(response -> {
+            var finished = finishResponse(request, response, encoding);
+            metrics.recordHandle(match.pattern(), finished.getStatus(), System.nanoTime() - start);
+            return finished;
+        });
+    }
+
+    public void logAccess(String request, Response response, long bytes, long durationNanos, String client) {
+        logAccess(Request.parse(request), response, bytes, durationNanos, client);
+    }
+
+    public void logAccess(Request request, Response response, long bytes, long durationNanos, String client) {
+        if (accessLog == null)
+            return;
+        accessLog.log(request.getMethod(), request.getTarget(), response.getStatus(), bytes, durationNanos, client);
+    }
+
+    private String routeOf(Router.Match match) {
+        return match == null ? Metrics.STATIC_ROUTE : match.pattern();
+    }
+
+    private Response finishResponse(Request request, Response response, String encoding) {
+        var finished = evaluateRange(request, evaluatePreconditions(request, encodeResponse(response, encoding)));
+        return request.isMethod("HEAD") ? finished.withoutBody() : finished;
+    }
+
+    private Response routeRequest(Request request, Router.Match match, String encoding) throws IOException, InterruptedException {
+        var filePath = request.getTarget();
+        if (match != null)
+            return match.handler().handle(request, match.parameters());
+
         var indexHTML = new File(root + filePath + "/index.html");
         var file = new File(root + filePath);
-        var responseStream = new ByteArrayOutputStream();
 
-        if (filePath.startsWith("/ping")) {
-            var template = getTextFileContent("/Users/scoops/Projects/httpServer1.1/ping/index.html");
-            var sleepModifier = filePath.replace("/ping/", "");
-            int timeToSleep;
+        var cachedIndex = staticFileCache.get(indexHTML.toPath());
+        if (cachedIndex != null)
+            return buildResponse("200 OK", cachedIndex.getContentType(), cachedIndex, encoding);
 
-            try {
-                timeToSleep = Integer.parseInt(sleepModifier) * 1000;
-            } catch (Exception e) {
-                timeToSleep = 0;
-            }
+        var cachedFile = staticFileCache.get(file.toPath());
+        if (cachedFile != null)
+            return buildResponse("200 OK", cachedFile.getContentType(), cachedFile, encoding);
 
-            var html = template.formatted(getCurrentTime(), "%s");
-            Thread.sleep(timeToSleep);
-            html = html.formatted(getCurrentTime());
-            return buildResponse(responseStream, html.getBytes());
+        if (indexHTML.exists()) {
+            return buildResponse("200 OK", "Content-Type: text/html\r\n", indexHTML, encoding);
         }
 
-        if (filePath.startsWith("/guess")) {
-            if (Objects.equals("POST", getMethod(request))) {
-                var requestArray = request.split(CLRF);
-                var clientGuess = requestArray[requestArray.length - 1].split("=")[1];
-                var guessResponse = guessingGame.handleGuess(Integer.parseInt(clientGuess));
-                return buildResponse(responseStream, getTextFileContent(indexHTML).formatted("<p>"+ guessResponse +"</p>").getBytes());
-            }
-            guessingGame = new GuessingGame();
+        if (file.isFile()) {
+            return buildResponse("200 OK", getContentType(filePath), file, encoding);
+        }
+
+        if (file.isDirectory()) {
+            return buildListingResponse(file, null);
+        }
+
+        return buildNotFoundResponse(encoding);
+    }
+
+    public Server route(String method, String pattern, Handler handler) {
+        router.register(method, pattern, handler);
+        return this;
+    }
 
-            return buildResponse(responseStream, getTextFileContent(indexHTML).formatted("<p>Pick a number 1 - 100</p>").getBytes());
+    public Server routeAsync(String method, String pattern, AsyncHandler handler) {
+        return route(method, pattern, handler);
+    }
+
+    private void registerRoutes() {
+        routeAsync(Router.ANY_METHOD, "/ping", (request, parameters) -> handlePing("0"));
+        routeAsync(Router.ANY_METHOD, "/ping/{seconds}", (request, parameters) -> handlePing(parameters.get("seconds")));
+        route(Router.ANY_METHOD, "/guess", (request, parameters) -> handleNewGame(request));
+        route("POST", "/guess", (request, parameters) -> handleGuess(request));
+        route(Router.ANY_METHOD, "/listing/{*path}", (request, parameters) -> handleListing(parameters.get("path"), request));
+        route(Router.ANY_METHOD, "/form", (request, parameters) -> handleForm(request));
+        route("POST", "/form", (request, parameters) -> {
+            return buildUploadResponse(request, new ByteArrayInputStream(request.getBody()));
+        });
+        route(Router.ANY_METHOD, "/metrics", (request, parameters) ->
+                buildResponse("200 OK", Metrics.CONTENT_TYPE, metrics.toPrometheus().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private CompletableFuture<Response> handlePing(String seconds) throws IOException {
+        var template = getTemplate("/ping/index.html");
+        int delay;
+
+        try {
+            delay = Integer.parseInt(seconds) * 1000;
+        } catch (Exception e) {
+            delay = 0;
         }
 
-        if (filePath.startsWith("/listing")) {
-            filePath = filePath.replace("/listing", root);
-            if (new File(filePath).isDirectory())
-                return buildResponse(responseStream, buildDirectoryListing(filePath).getBytes());
+        var startTime = getCurrentTime();
+        if (delay <= 0)
+            return CompletableFuture.completedFuture(buildResponse(template, startTime, startTime));
+        return responseScheduler.schedule(delay, () -> buildResponse(template, startTime, getCurrentTime()));
+    }
+
+    private Response handleNewGame(Request request) throws IOException {
+        var sessionId = getSessionManager().start(getCookie(request, SessionManager.COOKIE_NAME), new GuessingGame());
+        return buildResponse(getTemplate("/guess/index.html"), "<p>Pick a number 1 - 100</p>")
+                .header("Set-Cookie", buildSessionCookie(sessionId));
+    }
+
+    private Response handleGuess(Request request) throws IOException {
+        var clientGuess = request.getBodyText().split("=")[1];
+        var sessions = getSessionManager();
+        var sessionId = getCookie(request, SessionManager.COOKIE_NAME);
+        var guess = Integer.parseInt(clientGuess);
+        var guessResponse = sessions.update(sessionId, game -> game.handleGuess(guess));
+        if (guessResponse == null) {
+            var guessingGame = new GuessingGame();
+            guessResponse = guessingGame.handleGuess(guess);
+            sessionId = sessions.start(null, guessingGame);
         }
 
-        if (filePath.startsWith("/form")) {
-            if (Objects.equals("POST",getMethod(request))) {
-                System.out.println(parsedRequest.get("body"));
-                var contentType = parsedRequest.get("Content-Type");
-                var html = """
-                        <h2>POST Form</h2>
+        return buildResponse(getTemplate("/guess/index.html"), "<p>"+ guessResponse +"</p>")
+                .header("Set-Cookie", buildSessionCookie(sessionId));
+    }
+
+    public String getCookie(String request, String name) {
+        return getCookie(Request.parse(request), name);
+    }
+
+    public String getCookie(Request request, String name) {
+        var cookies = request.getHeaderValue("Cookie");
+        if (cookies == null)
+            return null;
+
+        for (var cookie : cookies.split(";")) {
+            var pair = cookie.trim().split("=", 2);
+            if (pair.length == 2 && Objects.equals(name, pair[0]))
+                return pair[1];
+        }
+        return null;
+    }
+
+    private String buildSessionCookie(String sessionId) throws IOException {
+        var maxAge = getSessionManager().getTtlMillis() / 1000;
+        return SessionManager.COOKIE_NAME + "=" + sessionId + "; Path=/guess; Max-Age=" + maxAge + "; HttpOnly; SameSite=Lax";
+    }
+
+    private Response handleListing(String path, Request request) throws IOException {
+        var directory = new File(path.isEmpty() ? root : root + "/" + path);
+        if (directory.isDirectory())
+            return buildListingResponse(directory, getListingCursor(request));
+        return buildNotFoundResponse(null);
+    }
+
+    private String getListingCursor(Request request) {
+        var path = request.getTarget();
+        var queryStart = path.indexOf('?');
+        if (queryStart == -1)
+            return null;
+
+        for (var parameter : path.substring(queryStart + 1).split("&")) {
+            if (parameter.startsWith("after="))
+                return URLDecoder.decode(parameter.substring("after=".length()), StandardCharsets.UTF_8);
+        }
+        return null;
+    }
+
+    private Response handleForm(Request request) throws IOException {
+        var queryMap = parseQuery(request.getTarget());
+        return buildResponse(getTemplate("/form/getTemplate.html"), queryMap.get("foo"), queryMap.get("bar"));
+    }
+
+    private Response buildNotFoundResponse(String encoding) throws IOException {
+        var fileNotFound = new File(root + "/404/index.html");
+        if (fileNotFound.isFile())
+            return buildResponse("404 Not Found", "Content-Type: text/html\r\n", fileNotFound, encoding);
+        return buildResponse("404 Not Found", "Content-Type: text/html\r\n", "<h1>404: Not Found</h1>\n".getBytes());
+    }
+
+    public String getRequest(InputStream inputStream) throws IOException {
+        var head = readHead(inputStream);
+        var parser = new RequestParser();
+        parser.parse(head, 0, head.length);
+        return new String(head, StandardCharsets.UTF_8) + new String(readBody(parser, inputStream), StandardCharsets.UTF_8);
+    }
+
+    public Request readRequest(InputStream inputStream) throws IOException {
+        var parser = Request.parseHead(readHead(inputStream));
+        return new Request(parser, readBody(parser, inputStream));
+    }
+
+    public byte[] readBody(RequestParser parser, InputStream inputStream) throws IOException {
+        if (!parser.isComplete())
+            return new byte[0];
+
+        if (parser.headerContains("Transfer-Encoding", "chunked"))
+            return readChunkedBody(inputStream);
+
+        var contentLength = parser.getContentLength();
+        if (contentLength >= 0)
+            return inputStream.readNBytes((int) Math.min(contentLength, Integer.MAX_VALUE));
+
+        return new byte[0];
+    }
+
+    public boolean isBodyTooLarge(RequestParser parser) throws IOException {
+        return parser.getContentLength() > MAX_BODY_SIZE;
+    }
+
+    public boolean isUpload(RequestParser parser) throws IOException {
+        var target = parser.getTarget();
+        var queryStart = target.indexOf('?');
+        return parser.isMethod("POST")
+                && Objects.equals("/form", queryStart == -1 ? target : target.substring(0, queryStart))
+                && parser.headerContains("Content-Type", "multipart/form-data")
+                && parser.getContentLength() >= 0;
+    }
+
+    public Response handleUpload(Request request, InputStream body) throws IOException {
+        var start = System.nanoTime();
+        var response = buildUploadResponse(request, body);
+        metrics.recordHandle("/form", response.getStatus(), System.nanoTime() - start);
+        return response;
+    }
+
+    private Response buildUploadResponse(Request request, InputStream body) throws IOException {
+        var boundary = MultipartParser.boundaryOf(request.getHeaderValue("Content-Type"));
+        if (boundary == null)
+            return buildResponse("400 Bad Request", "Content-Type: text/html\r\n", "<h2>Expected multipart/form-data</h2>".getBytes());
+
+        var html = new StringBuilder("<h2>POST Form</h2>\n");
+        var parser = new MultipartParser(body, boundary);
+        MultipartParser.Part part;
+        try {
+            while ((part = parser.nextPart()) != null) {
+                var fileName = part.getFileName();
+                if (fileName == null || fileName.isEmpty())
+                    continue;
+
+                var size = part.transferTo(OutputStream.nullOutputStream());
+                html.append("""
                         <li>File name: %s</li>
                         <li>content type: %s</li>
-                        <li>file size: %s</li>
-                        """.formatted("idk", contentType, "idk");
-
-                return buildResponse(responseStream, html.getBytes());
+                        <li>file size: %d</li>
+                        """.formatted(escapeHtml(fileName), escapeHtml(part.getContentType()), size));
             }
-
-            var queryMap = parseQuery(filePath);
-            var template = getTextFileContent("/Users/scoops/Projects/httpServer1.1/form/getTemplate.html");
-            var response = template.formatted(queryMap.get("foo"), queryMap.get("bar"));
-            return buildResponse(responseStream, response.getBytes());
+        } catch (MalformedMultipartException mme) {
+            return buildResponse("400 Bad Request", "Content-Type: text/html\r\n", "<h2>Malformed multipart body</h2>".getBytes());
         }
 
-        if (indexHTML.exists()) {
-            return buildResponse(responseStream, getFileContent(indexHTML));
+        return buildResponse(html.toString().getBytes());
+    }
+
+    private String escapeHtml(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    public SessionManager getSessionManager() throws IOException {
+        var manager = sessionManager;
+        if (manager != null)
+            return manager;
+        synchronized (this) {
+            if (sessionManager == null) {
+                var store = Objects.equals("memory", sessionStore) ? new MemorySessionStore() : new FileSessionStore(Path.of(sessionStore));
+                sessionManager = new SessionManager(store, 30 * 60 * 1000, 10000);
+            }
+            return sessionManager;
         }
+    }
 
-        if (file.isFile()){
-            return buildResponse(responseStream, getContentType(filePath), getFileContent(file));
+    public DirectoryListingCache getDirectoryListingCache() {
+        var cache = directoryListingCache;
+        if (cache != null)
+            return cache;
+        synchronized (this) {
+            if (directoryListingCache == null)
+                directoryListingCache = new DirectoryListingCache(Path.of(root), 1000, 256);
+            return directoryListingCache;
         }
+    }
 
-        if (file.isDirectory()) {
-            return buildResponse(responseStream, buildDirectoryListing(file).getBytes());
+    private byte[] readHead(InputStream inputStream) throws IOException {
+        var head = new ByteArrayOutputStream();
+        int matched = 0;
+        int b;
+
+        while (matched < 4 && (b = inputStream.read()) != -1) {
+            if (head.size() == 0 && (b == '\r' || b == '\n'))
+                continue;
+
+            head.write(b);
+            if (head.size() > MAX_HEADER_SIZE)
+                throw new IOException("Request header exceeds " + MAX_HEADER_SIZE + " bytes");
+
+            if ((b == '\r' && matched % 2 == 0) || (b == '\n' && matched % 2 == 1))
+                matched++;
+            else
+                matched = b == '\r' ? 1 : 0;
         }
 
-        var fileNotFound = new File("/Users/scoops/Projects/httpServer1.1/404/index.html");
-        return buildResponse(responseStream, "404 Not Found", getContentType(filePath), getFileContent(fileNotFound));
+        return head.toByteArray();
     }
 
-    public String getRequest(InputStream inputStream) throws IOException {
-        StringBuilder request = new StringBuilder();
-        byte[] buffer = new byte[16384];
-        int bytesRead;
+    private byte[] readChunkedBody(InputStream inputStream) throws IOException {
+        var body = new ByteArrayOutputStream();
+
+        while (true) {
+            var sizeLine = readLine(inputStream).split(";", 2)[0].trim();
+            if (sizeLine.isEmpty())
+                throw new IOException("Malformed chunk size");
 
-        while ((bytesRead = inputStream.read(buffer)) != -1) {
-            request.append(new String(buffer, 0, bytesRead, StandardCharsets.UTF_8));
-            if (bytesRead < buffer.length) {
+            int chunkSize = Integer.parseInt(sizeLine, 16);
+            if (chunkSize == 0)
                 break;
-            }
+
+            if (body.size() + chunkSize > MAX_BODY_SIZE)
+                throw new PayloadTooLargeException();
+            body.write(inputStream.readNBytes(chunkSize));
+            readLine(inputStream);
+        }
+
+        var trailer = readLine(inputStream);
+        while (!trailer.isEmpty())
+            trailer = readLine(inputStream);
+
+        return body.toByteArray();
+    }
+
+    private String readLine(InputStream inputStream) throws IOException {
+        var line = new ByteArrayOutputStream();
+        int b;
+
+        while ((b = inputStream.read()) != -1 && b != '\n') {
+            if (b != '\r')
+                line.write(b);
+            if (line.size() > MAX_HEADER_SIZE)
+                throw new IOException("Line exceeds " + MAX_HEADER_SIZE + " bytes");
         }
 
-        return request.toString();
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    public String getHeaderValue(String request, String name) {
+        return Request.parse(request).getHeaderValue(name);
+    }
+
+    public boolean isKeepAlive(String request) {
+        return Request.parse(request).isKeepAlive();
     }
 
     private HashMap<String, String> parseQuery(String filePath) {
@@ -170,22 +747,207 @@ public class Server {
         return queryMap;
     }
 
-    private byte[] buildResponse(ByteArrayOutputStream responseStream, String status, String contentType, byte[] content) throws IOException {
-        responseStream.write(responseStatus(status).getBytes());
-        responseStream.write(contentType.getBytes());
-        responseStream.write("Server: httpServer1.1".getBytes());
-        responseStream.write(CLRF.getBytes());
-        responseStream.write(CLRF.getBytes());
-        responseStream.write(content);
-        return responseStream.toByteArray();
+    private Response buildResponse(String status, String contentType, byte[] content) {
+        return Response.of(status, contentType, content);
+    }
+
+    private Response buildResponse(String contentType, byte[] content) {
+        return buildResponse("200 OK", contentType, content);
+    }
+
+    private Response buildResponse(String status, String contentType, File file, String encoding) throws IOException {
+        var cached = staticFileCache.get(file.toPath());
+        if (cached == null)
+            cached = staticFileCache.load(file.toPath(), contentType, path -> getFileContent(file));
+        if (cached != null)
+            return buildResponse(status, contentType, cached, encoding);
+
+        var attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        var etag = getETag(attributes.fileKey(), attributes.lastModifiedTime().toMillis(), attributes.size());
+        var lastModified = attributes.lastModifiedTime().toMillis();
+
+        if (encoding != null && Compression.isCompressible(contentType)) {
+            var sidecar = getSidecar(file.toPath(), encoding);
+            if (sidecar != null) {
+                var response = Response.ofFile(status, contentType, sidecar)
+                        .header("Content-Encoding", encoding)
+                        .header("Vary", "Accept-Encoding");
+                return addValidators(response, variantETag(etag, encoding), lastModified);
+            }
+        }
+
+        if (isTextFile(getExtensionOf(file.getName())))
+            return addValidators(Response.ofGenerator(status, contentType, out -> writeTextFileContent(file, out)), etag, lastModified);
+        return addValidators(Response.ofFile(status, contentType, file.toPath()), etag, lastModified);
+    }
+
+    private Response buildResponse(String status, String contentType, StaticFileCache.Entry entry, String encoding) throws IOException {
+        var content = entry.getContent();
+        var etag = getETag(entry.getFileKey(), entry.getLastModified(), entry.getSize());
+        if (encoding == null || !Compression.isCompressible(contentType) || content.length < Compression.MIN_COMPRESSIBLE_SIZE)
+            return addValidators(buildResponse(status, contentType, content), etag, entry.getLastModified());
+
+        var variant = staticFileCache.variant(entry, encoding, (path, original) -> getEncodedContent(path, original, encoding));
+        var response = buildResponse(status, contentType, variant)
+                .header("Content-Encoding", encoding)
+                .header("Vary", "Accept-Encoding");
+        return addValidators(response, variantETag(etag, encoding), entry.getLastModified());
+    }
+
+    private Response addValidators(Response response, String etag, long lastModified) {
+        if (!Objects.equals("200 OK", response.getStatus()))
+            return response;
+        return response
+                .header("ETag", etag)
+                .header("Last-Modified", formatHttpDate(lastModified));
+    }
+
+    public String getETag(File file) throws IOException {
+        var attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        return getETag(attributes.fileKey(), attributes.lastModifiedTime().toMillis(), attributes.size());
+    }
+
+    public String getLastModified(File file) {
+        return formatHttpDate(file.lastModified());
+    }
+
+    private String getETag(Object fileKey, long lastModified, long size) {
+        var etag = new StringBuilder("\"");
+        if (fileKey != null)
+            etag.append(Integer.toHexString(fileKey.hashCode())).append('-');
+        etag.append(Long.toHexString(lastModified)).append('-').append(Long.toHexString(size));
+        return etag.append('"').toString();
+    }
+
+    private String variantETag(String etag, String encoding) {
+        return etag.substring(0, etag.length() - 1) + "-" + encoding + "\"";
+    }
+
+    private String formatHttpDate(long millis) {
+        return HTTP_DATE.format(Instant.ofEpochMilli(millis));
+    }
+
+    private Response evaluatePreconditions(Request request, Response response) {
+        if (!Objects.equals("200 OK", response.getStatus()))
+            return response;
+        if (!request.isMethod("GET") && !request.isMethod("HEAD"))
+            return response;
+
+        var etag = response.getHeader("ETag");
+        var ifNoneMatch = request.getHeaderValue("If-None-Match");
+        if (ifNoneMatch != null)
+            return etag != null && matchesETag(ifNoneMatch, etag) ? Response.notModified(response) : response;
+
+        var lastModified = response.getHeader("Last-Modified");
+        var ifModifiedSince = request.getHeaderValue("If-Modified-Since");
+        if (lastModified != null && ifModifiedSince != null && !isModifiedSince(lastModified, ifModifiedSince))
+            return Response.notModified(response);
+
+        return response;
+    }
+
+    private Response evaluateRange(Request request, Response response) {
+        if (!Objects.equals("200 OK", response.getStatus()) || response.getHeader("ETag") == null)
+            return response;
+        if (!ByteRanges.isSliceable(response.getBody()))
+            return response;
+        response.header("Accept-Ranges", "bytes");
+
+        var range = request.getHeaderValue("Range");
+        if (range == null || !request.isMethod("GET"))
+            return response;
+        var ifRange = request.getHeaderValue("If-Range");
+        if (ifRange != null && !matchesIfRange(ifRange, response))
+            return response;
+
+        var ranges = ByteRanges.parse(range, response.getContentLength());
+        if (ranges == null)
+            return response;
+        if (ranges.isEmpty())
+            return ByteRanges.notSatisfiable(response);
+        return ByteRanges.partial(response, ranges);
+    }
+
+    private boolean matchesIfRange(String ifRange, Response response) {
+        var etag = response.getHeader("ETag");
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/"))
+            return etag != null && !etag.startsWith("W/") && Objects.equals(etag, ifRange);
+
+        var lastModified = response.getHeader("Last-Modified");
+        if (lastModified == null)
+            return false;
+        try {
+            var modified = ZonedDateTime.parse(lastModified, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            var since = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            return modified.equals(since);
+        } catch (DateTimeParseException dtpe) {
+            return false;
+        }
+    }
+
+    private boolean matchesETag(String ifNoneMatch, String etag) {
+        var opaqueTag = etag.replace("W/", "");
+        for (var candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (Objects.equals("*", candidate) || Objects.equals(opaqueTag, candidate.replace("W/", "")))
+                return true;
+        }
+        return false;
+    }
+
+    private boolean isModifiedSince(String lastModified, String ifModifiedSince) {
+        try {
+            var modified = ZonedDateTime.parse(lastModified, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            var since = ZonedDateTime.parse(ifModifiedSince, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            return modified.isAfter(since);
+        } catch (DateTimeParseException dtpe) {
+            return true;
+        }
+    }
+
+    private Response encodeResponse(Response response, String encoding) {
+        if (encoding == null || response.getHeader("Content-Encoding") != null)
+            return response;
+        if (!Compression.isCompressible(response.getContentType()))
+            return response;
+        if (response.getContentLength() >= 0 && response.getContentLength() < Compression.MIN_COMPRESSIBLE_SIZE)
+            return response;
+
+        var compressed = response.compress(encoding);
+        var etag = response.getHeader("ETag");
+        if (etag != null)
+            compressed.header("ETag", variantETag(etag, encoding));
+        return compressed;
+    }
+
+    private byte[] getEncodedContent(Path path, byte[] content, String encoding) throws IOException {
+        var sidecar = getSidecar(path, encoding);
+        if (sidecar != null)
+            return Files.readAllBytes(sidecar);
+        return Compression.compress(content, encoding);
+    }
+
+    private Path getSidecar(Path path, String encoding) {
+        if (!Objects.equals("gzip", encoding))
+            return null;
+        var sidecar = Path.of(path + ".gz");
+        return Files.isRegularFile(sidecar) ? sidecar : null;
+    }
+
+    private Response buildListingResponse(File directory, String after) throws IOException {
+        return buildResponse(getDirectoryListingCache().get(directory.toPath(), after));
+    }
+
+    private Template getTemplate(String templatePath) throws IOException {
+        return templateCache.get(Path.of(root + templatePath));
     }
 
-    private byte[] buildResponse(ByteArrayOutputStream responseStream, String contentType, byte[] content) throws IOException {
-        return buildResponse(responseStream, "200 OK", contentType, content);
+    private Response buildResponse(Template template, Object... values) {
+        return Response.ofGenerator("200 OK", "Content-Type: text/html\r\n", out -> template.render(out, values));
     }
 
-    private byte[] buildResponse(ByteArrayOutputStream responseStream, byte[] content) throws IOException {
-        return buildResponse(responseStream, "200 OK", "Content-Type: text/html\n", content);
+    private Response buildResponse(byte[] content) {
+        return buildResponse("200 OK", "Content-Type: text/html\r\n", content);
     }
 
     public String getCurrentTime() {
@@ -196,11 +958,13 @@ public class Server {
 
     public HashMap<String, String> parseRequest(String request) {
         var result = new HashMap<String, String>();
+        var startLine = getStartLine(request);
+        var startLineParts = startLine.split("\\s");
         result.put("header", getHeader(request));
-        result.put("startLine", getStartLine(request));
+        result.put("startLine", startLine);
         result.put("body", getBody(request));
-        result.put("path", getPath(request));
-        result.put("method", getMethod(request));
+        result.put("path", startLineParts[1]);
+        result.put("method", startLineParts[0]);
         addHeaderLines(result, request);
 
         return result;
@@ -219,21 +983,17 @@ public class Server {
     }
 
     public String getPath(String request) {
-        return splitStartLine(request)[1];
+        return Request.parse(request).getTarget();
     }
 
     public String getMethod(String request) {
-        return splitStartLine(request)[0];
+        return Request.parse(request).getMethod();
     }
 
     private String getStartLine(String request) {
         return request.split("\r\n")[0];
     }
 
-    private String[] splitStartLine(String request) {
-        return getStartLine(request).split("\\s");
-    }
-
     private String getHeader(String request) {
         return request.split("\r\n\r\n", 2)[0];
     }
@@ -247,10 +1007,12 @@ public class Server {
     }
 
     private byte[] getFileContent(File file) throws IOException {
-        String extension = getExtensionOf(file.getName());
-        if (isTextFile(extension))
-            return getTextFileContent(file).getBytes();
-        return getBinaryFileContent(file);
+        if (!isTextFile(getExtensionOf(file.getName())))
+            return getBinaryFileContent(file);
+
+        var content = new ByteArrayOutputStream();
+        writeTextFileContent(file, content);
+        return content.toByteArray();
     }
 
     private boolean isTextFile(String extension) {
@@ -275,6 +1037,16 @@ public class Server {
         return htmlContent.toString();
     }
 
+    public void writeTextFileContent(File file, OutputStream out) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                out.write(line.getBytes());
+                out.write('\n');
+            }
+        }
+    }
+
     public String getTextFileContent(String filePath) throws IOException {
         var file = new File(filePath);
         return getTextFileContent(file);
@@ -286,31 +1058,13 @@ public class Server {
     }
 
     public String buildDirectoryListing(File directory) throws IOException {
-        var listing = directory.list();
-        var rootPath = new File(root).getCanonicalPath();
-        var path = directory.getCanonicalPath().replace(rootPath, ".");
-        var stringBuilder = new StringBuilder();
-
-        stringBuilder.append("<h1>Directory Listing for ");
-        stringBuilder.append(path);
-        stringBuilder.append("</h1>\n<ul>");
-
-        assert listing != null;
-        for (String fileName : listing) {
-            var currentFile = new File(directory.getPath()  + "/" + fileName);
-            var currentFilePath = currentFile.getCanonicalPath().replace(rootPath, "");
-
-            stringBuilder.append("<li><a href=\"");
-            if (currentFile.isDirectory())
-                stringBuilder.append("/listing");
-            stringBuilder.append(currentFilePath);
-            stringBuilder.append("\">");
-            stringBuilder.append(fileName);
-            stringBuilder.append("</a></li>");
-        }
-        stringBuilder.append("</ul>");
+        var out = new ByteArrayOutputStream();
+        writeDirectoryListing(directory, out);
+        return out.toString();
+    }
 
-        return stringBuilder.toString();
+    public void writeDirectoryListing(File directory, OutputStream out) throws IOException {
+        out.write(getDirectoryListingCache().get(directory.toPath(), null));
     }
 
     public String buildDirectoryListing(String filePath) throws IOException {
@@ -319,19 +1073,7 @@ public class Server {
 
 
     public String getContentType(String pathString) {
-        var path = Path.of(pathString);
-        String contentType;
-
-        try {
-            contentType = Files.probeContentType(path);
-            if (contentType == null)
-                contentType = "text/html";
-        } catch (IOException ioe) {
-            contentType = "text/html";
-            System.out.println(ioe.getMessage());
-        }
-
-        return "Content-Type: " + contentType + "\n";
+        return mimeTypes.forExtension(getExtensionOf(pathString)).header();
     }
 
     public String getExtensionOf(String path) {
@@ -349,6 +1091,45 @@ public class Server {
             if (Objects.equals(args[i], "-r"))
                 root = args[i + 1];
 
+            if (Objects.equals(args[i], "-e"))
+                executorMode = args[i + 1];
+
+            if (Objects.equals(args[i], "-n"))
+                poolSize = Integer.parseInt(args[i + 1]);
+
+            if (Objects.equals(args[i], "-m"))
+                engine = args[i + 1];
+
+            if (Objects.equals(args[i], "-l"))
+                eventLoopCount = Integer.parseInt(args[i + 1]);
+
+            if (Objects.equals(args[i], "-t"))
+                loadMimeTypes(args[i + 1]);
+
+            if (Objects.equals(args[i], "-s"))
+                sessionStore = args[i + 1];
+
+            if (Objects.equals(args[i], "-b"))
+                backlog = Integer.parseInt(args[i + 1]);
+
+            if (Objects.equals(args[i], "-c"))
+                maxConcurrentRequests = Integer.parseInt(args[i + 1]);
+
+            if (Objects.equals(args[i], "-g"))
+                limiterMode = args[i + 1];
+
+            if (Objects.equals(args[i], "-i"))
+                acceptorCount = Integer.parseInt(args[i + 1]);
+
+            if (Objects.equals(args[i], "-d"))
+                drainTimeout = Integer.parseInt(args[i + 1]);
+
+            if (Objects.equals(args[i], "-a"))
+                accessLogFile = args[i + 1];
+
+            if (Objects.equals(args[i], "-o"))
+                accessLogPolicy = args[i + 1];
+
             if (Objects.equals(args[i], "-h")) {
                 isRunnable = false;
                 printHelpMenu();
@@ -359,14 +1140,55 @@ public class Server {
                 isPrintingConfig = true;
             }
         }
-        
+
+        buildConcurrencyLimiter();
         if (isPrintingConfig)
             printStartupConfig();
     }
 
+    private void buildConcurrencyLimiter() {
+        try {
+            concurrencyLimiter = ConcurrencyLimiter.of(limiterMode, maxConcurrentRequests);
+            metrics.setConcurrencyLimiter(concurrencyLimiter);
+        } catch (IllegalArgumentException iae) {
+            System.out.println(iae.getMessage());
+        }
+    }
+
+    public void openAccessLog() {
+        if (accessLogFile == null || accessLog != null)
+            return;
+        try {
+            accessLog = new AccessLog(Path.of(accessLogFile), 8192, 64 * 1024 * 1024, 5, accessLogPolicy);
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    private void loadMimeTypes(String mimeTypesFile) {
+        try {
+            mimeTypes = MimeTypes.load(Path.of(mimeTypesFile));
+        } catch (IOException ioe) {
+            System.out.println(ioe.getMessage());
+        }
+    }
+
     private void printHelpMenu() {
         System.out.println("  -p     Specify the port.  Default is 80.");
         System.out.println("  -r     Specify the root directory.  Default is the current working directory.");
+        System.out.println("  -e     Specify the connection executor: virtual or pool.  Default is virtual.");
+        System.out.println("  -n     Specify the thread count of the pool executor.  Default is 200.");
+        System.out.println("  -m     Specify the server engine: blocking or nio.  Default is blocking.");
+        System.out.println("  -l     Specify the number of nio event loops.  Default is one per core.");
+        System.out.println("  -t     Specify a mime.types file overriding the built-in MIME table.");
+        System.out.println("  -s     Specify the guessing game session store: memory or a directory.  Default is memory.");
+        System.out.println("  -b     Specify the listen backlog.  Default is 50.");
+        System.out.println("  -c     Specify the max concurrent requests before answering 503.  Default is unlimited.");
+        System.out.println("  -g     Specify the concurrency limiter: fixed or aimd.  Default is fixed.");
+        System.out.println("  -i     Specify the number of acceptors, each with its own SO_REUSEPORT listener.  Default is 1.");
+        System.out.println("  -d     Specify the graceful shutdown drain timeout in seconds.  Default is 30.");
+        System.out.println("  -a     Specify an access log file.  Default is no access log.");
+        System.out.println("  -o     Specify the access log overflow policy: drop or block.  Default is drop.");
         System.out.println("  -h     Print this help message");
         System.out.println("  -x     Print the startup configuration without starting the server");
     }
@@ -383,6 +1205,14 @@ public class Server {
         System.out.println("Example Server");
         System.out.println("Running on port: " + port);
         System.out.println("Serving files from: " + path);
+        if (Objects.equals("nio", engine))
+            System.out.println("Server engine: nio with " + eventLoopCount + " event loops");
+        else
+            System.out.println("Server engine: blocking");
+        if (Objects.equals("pool", executorMode))
+            System.out.println("Connection executor: pool of " + poolSize + " threads");
+        else
+            System.out.println("Connection executor: " + executorMode);
     }
 
     public int getPort() {
@@ -396,4 +1226,61 @@ public class Server {
     public String getRoot() {
         return root;
     }
+
+    public ConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    public AccessLog getAccessLog() {
+        return accessLog;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public ResponseScheduler getResponseScheduler() {
+        return responseScheduler;
+    }
+
+    public StaticFileCache getStaticFileCache() {
+        return staticFileCache;
+    }
+
+    public String getExecutorMode() {
+        return executorMode;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public String getEngine() {
+        return engine;
+    }
+
+    public int getEventLoopCount() {
+        return eventLoopCount;
+    }
+
+    public int getActiveConnections() {
+        if (connectionExecutors.size() > 1)
+            return connectionExecutors.stream().mapToInt(ConnectionExecutor::getActiveCount).sum();
+        return connectionExecutor == null ? 0 : connectionExecutor.getActiveCount();
+    }
+
+    public int getQueuedConnections() {
+        var executors = connectionExecutors;
+        if (executors.size() > 1) {
+            int queued = 0;
+            for (var executor : executors)
+                queued += executor.getQueuedCount();
+            return queued;
+        }
+        return connectionExecutor == null ? 0 : connectionExecutor.getQueuedCount();
+    }
+
+    public int getAcceptorCount() {
+        return acceptorCount;
+    }
 }
\ No newline at end of file
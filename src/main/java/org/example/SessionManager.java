@@ -0,0 +1,268 @@
+package org.example;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+public class SessionManager {
+    public static final String COOKIE_NAME = "guess-session";
+    private static final Pattern ID_PATTERN = Pattern.compile("[A-Za-z0-9_-]{22}");
+    private static final int EVICTION_SAMPLE_SIZE = 16;
+    private static final int EVICTION_SAMPLE_ATTEMPTS = 4;
+    private final SessionStore store;
+    private final long ttlMillis;
+    private final int maxSessions;
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final AtomicLong nextSweep = new AtomicLong();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public SessionManager(SessionStore store, long ttlMillis, int maxSessions) {
+        this.store = store;
+        this.ttlMillis = ttlMillis;
+        this.maxSessions = maxSessions;
+        nextSweep.set(System.currentTimeMillis() + ttlMillis);
+    }
+
+    public String start(String id, GuessingGame game) throws IOException {
+        if (!isActive(id))
+            id = newId();
+
+        var session = sessions.computeIfAbsent(id, Session::new);
+        session.lock.lock();
+        try {
+            store.save(id, game);
+        } finally {
+            session.lock.unlock();
+        }
+        session.touch();
+        sweepIfDue();
+        evictUntilWithinBounds(id);
+        return id;
+    }
+
+    public GuessingGame get(String id) throws IOException {
+        var session = activate(id);
+        if (session == null)
+            return null;
+
+        var game = store.load(id);
+        if (game == null)
+            sessions.remove(id, session);
+        return game;
+    }
+
+    public <T> T update(String id, Function<GuessingGame, T> update) throws IOException {
+        var session = activate(id);
+        if (session == null)
+            return null;
+
+        session.lock.lock();
+        try {
+            var game = store.load(id);
+            if (game == null) {
+                sessions.remove(id, session);
+                return null;
+            }
+            var result = update.apply(game);
+            store.save(id, game);
+            return result;
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    private Session activate(String id) throws IOException {
+        if (id == null || !ID_PATTERN.matcher(id).matches())
+            return null;
+
+        var session = sessions.get(id);
+        if (session == null)
+            return adopt(id);
+        if (isExpired(session, System.currentTimeMillis())) {
+            expire(session);
+            return null;
+        }
+
+        session.touch();
+        return session;
+    }
+
+    private Session adopt(String id) throws IOException {
+        if (store.load(id) == null)
+            return null;
+
+        var session = sessions.computeIfAbsent(id, Session::new);
+        session.touch();
+        evictUntilWithinBounds(id);
+        return session;
+    }
+
+    public void save(String id, GuessingGame game) throws IOException {
+        if (!isActive(id))
+            return;
+
+        var session = sessions.get(id);
+        if (session == null)
+            return;
+        session.lock.lock();
+        try {
+            store.save(id, game);
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    public void remove(String id) throws IOException {
+        if (id != null && sessions.remove(id) != null)
+            store.remove(id);
+    }
+
+    private boolean isActive(String id) {
+        if (id == null)
+            return false;
+        var session = sessions.get(id);
+        return session != null && !isExpired(session, System.currentTimeMillis());
+    }
+
+    private String newId() {
+        var bytes = new byte[16];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private boolean isExpired(Session session, long now) {
+        return now - session.lastAccess > ttlMillis;
+    }
+
+    private void expire(Session session) {
+        if (sessions.remove(session.id, session)) {
+            expirations.increment();
+            removeFromStore(session.id);
+        }
+    }
+
+    private void removeFromStore(String id) {
+        try {
+            store.remove(id);
+        } catch (IOException ioe) {
+            System.out.println(ioe.getMessage());
+        }
+    }
+
+    private void sweepIfDue() {
+        var now = System.currentTimeMillis();
+        var due = nextSweep.get();
+        if (now >= due && nextSweep.compareAndSet(due, now + Math.max(ttlMillis / 2, 1)))
+            sweep();
+    }
+
+    public void sweep() {
+        var now = System.currentTimeMillis();
+        for (var session : sessions.values()) {
+            if (isExpired(session, now))
+                expire(session);
+        }
+    }
+
+    private void evictUntilWithinBounds(String keep) {
+        while (sessions.size() > maxSessions) {
+            var oldest = sampleOldest(keep);
+            if (oldest == null)
+                return;
+            if (sessions.remove(oldest.id, oldest)) {
+                evictions.increment();
+                removeFromStore(oldest.id);
+            }
+        }
+    }
+
+    private Session sampleOldest(String keep) {
+        var random = ThreadLocalRandom.current();
+        var sample = new Sample(keep);
+        for (int attempt = 0; attempt < EVICTION_SAMPLE_ATTEMPTS && !sample.isFull(); attempt++)
+            sample.scan(randomRegion(random));
+        if (sample.oldest == null)
+            sample.scan(sessions.values().spliterator());
+        return sample.oldest;
+    }
+
+    private Spliterator<Session> randomRegion(ThreadLocalRandom random) {
+        var region = sessions.values().spliterator();
+        while (region.estimateSize() > EVICTION_SAMPLE_SIZE) {
+            var half = region.trySplit();
+            if (half == null)
+                break;
+            if (random.nextBoolean())
+                region = half;
+        }
+        return region;
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    public long getExpiredCount() {
+        return expirations.sum();
+    }
+
+    public long getEvictedCount() {
+        return evictions.sum();
+    }
+
+    private static class Session {
+        private final String id;
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile long lastAccess;
+
+        private Session(String id) {
+            this.id = id;
+        }
+
+        private void touch() {
+            lastAccess = System.currentTimeMillis();
+        }
+    }
+
+    private static class Sample implements Consumer<Session> {
+        private final String keep;
+        private Session oldest;
+        private int count;
+
+        private Sample(String keep) {
+            this.keep = keep;
+        }
+
+        public void accept(Session session) {
+            if (session.id.equals(keep))
+                return;
+            count++;
+            if (oldest == null || session.lastAccess < oldest.lastAccess)
+                oldest = session;
+        }
+
+        private boolean isFull() {
+            return count >= EVICTION_SAMPLE_SIZE;
+        }
+
+        private void scan(Spliterator<Session> region) {
+            while (!isFull() && region.tryAdvance(this))
+                continue;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package org.example;
+
+import java.io.IOException;
+
+public interface SessionStore {
+    GuessingGame load(String id) throws IOException;
+
+    void save(String id, GuessingGame game) throws IOException;
+
+    void remove(String id) throws IOException;
+}
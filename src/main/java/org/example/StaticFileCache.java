@@ -0,0 +1,225 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class StaticFileCache {
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final long revalidateMillis;
+    private final ConcurrentHashMap<Path, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong cachedBytes = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LruIndex<Entry> accessOrder = new LruIndex<>();
+
+    public StaticFileCache(long maxBytes, long maxEntryBytes, long revalidateMillis) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+        this.revalidateMillis = revalidateMillis;
+    }
+
+    public Entry get(Path path) {
+        var key = keyOf(path);
+        var entry = entries.get(key);
+        if (entry == null)
+            return null;
+
+        var now = System.currentTimeMillis();
+        if (now - entry.lastValidated >= revalidateMillis) {
+            if (!entry.matches(readAttributes(key))) {
+                remove(key, entry);
+                return null;
+            }
+            entry.lastValidated = now;
+        }
+
+        accessOrder.recordAccess(entry);
+        hits.increment();
+        return entry;
+    }
+
+    public Entry load(Path path, String contentType, Loader loader) throws IOException {
+        misses.increment();
+        var key = keyOf(path);
+        var attributes = readAttributes(key);
+        if (attributes == null || attributes.size() > maxEntryBytes || attributes.size() > maxBytes)
+            return null;
+
+        var content = loader.load(key);
+        var entry = new Entry(key, content, contentType, attributes);
+        cachedBytes.addAndGet(content.length);
+        var previous = entries.put(key, entry);
+        if (previous != null) {
+            accessOrder.remove(previous);
+            release(previous);
+        }
+        accessOrder.add(entry);
+        if (entries.get(key) != entry)
+            accessOrder.remove(entry);
+        evictUntilWithinBounds();
+
+        return entry;
+    }
+
+    public byte[] variant(Entry entry, String name, VariantLoader loader) throws IOException {
+        var variant = entry.variants.get(name);
+        if (variant != null)
+            return variant;
+
+        variant = loader.load(entry.path, entry.content);
+        synchronized (entry) {
+            var existing = entry.variants.putIfAbsent(name, variant);
+            if (existing != null)
+                return existing;
+            if (!entry.isReleased) {
+                entry.weight += variant.length;
+                cachedBytes.addAndGet(variant.length);
+            }
+        }
+        evictUntilWithinBounds();
+
+        return variant;
+    }
+
+    public void invalidate(Path path) {
+        var key = keyOf(path);
+        var entry = entries.get(key);
+        if (entry != null)
+            remove(key, entry);
+    }
+
+    public void clear() {
+        for (var key : entries.keySet())
+            invalidate(key);
+    }
+
+    private void evictUntilWithinBounds() {
+        while (cachedBytes.get() > maxBytes) {
+            var leastRecent = accessOrder.pollEldest();
+            if (leastRecent == null)
+                return;
+            if (remove(leastRecent.path, leastRecent))
+                evictions.increment();
+        }
+    }
+
+    private boolean remove(Path key, Entry entry) {
+        if (!entries.remove(key, entry))
+            return false;
+        accessOrder.remove(entry);
+        release(entry);
+        return true;
+    }
+
+    private void release(Entry entry) {
+        synchronized (entry) {
+            entry.isReleased = true;
+            cachedBytes.addAndGet(-entry.weight);
+        }
+    }
+
+    private Path keyOf(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+
+    private BasicFileAttributes readAttributes(Path path) {
+        try {
+            var attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return attributes.isRegularFile() ? attributes : null;
+        } catch (NoSuchFileException nsfe) {
+            return null;
+        } catch (IOException ioe) {
+            System.out.println(ioe.getMessage());
+            return null;
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public long getCachedBytes() {
+        return cachedBytes.get();
+    }
+
+    public int getEntryCount() {
+        return entries.size();
+    }
+
+    public int getIndexedCount() {
+        return accessOrder.size();
+    }
+
+    public interface Loader {
+        byte[] load(Path path) throws IOException;
+    }
+
+    public interface VariantLoader {
+        byte[] load(Path path, byte[] content) throws IOException;
+    }
+
+    public static class Entry {
+        private final Path path;
+        private final byte[] content;
+        private final String contentType;
+        private final Object fileKey;
+        private final long lastModified;
+        private final long size;
+        private final ConcurrentHashMap<String, byte[]> variants = new ConcurrentHashMap<>();
+        private volatile long lastValidated = System.currentTimeMillis();
+        private long weight;
+        private boolean isReleased;
+
+        private Entry(Path path, byte[] content, String contentType, BasicFileAttributes attributes) {
+            this.path = path;
+            this.content = content;
+            this.weight = content.length;
+            this.contentType = contentType;
+            this.fileKey = attributes.fileKey();
+            this.lastModified = attributes.lastModifiedTime().toMillis();
+            this.size = attributes.size();
+        }
+
+        private boolean matches(BasicFileAttributes attributes) {
+            return attributes != null
+                    && attributes.lastModifiedTime().toMillis() == lastModified
+                    && attributes.size() == size;
+        }
+
+        public byte[] getContent() {
+            return content;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public Object getFileKey() {
+            return fileKey;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public long getSize() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+public class Template {
+    private final byte[][] literals;
+    private final Slot[] slots;
+
+    private Template(byte[][] literals, Slot[] slots) {
+        this.literals = literals;
+        this.slots = slots;
+    }
+
+    public static Template load(Path path) throws IOException {
+        var source = new StringBuilder();
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            String line;
+            while ((line = reader.readLine()) != null)
+                source.append(line).append('\n');
+        }
+        return compile(source.toString());
+    }
+
+    public static Template compile(String source) {
+        var literals = new ArrayList<byte[]>();
+        var slots = new ArrayList<Slot>();
+        var literal = new StringBuilder();
+
+        for (int i = 0; i < source.length(); i++) {
+            var c = source.charAt(i);
+            if (c != '%') {
+                literal.append(c);
+                continue;
+            }
+            if (++i == source.length())
+                throw new IllegalArgumentException("Template ends with an incomplete slot");
+
+            var conversion = source.charAt(i);
+            if (conversion == '%') {
+                literal.append('%');
+                continue;
+            }
+            literals.add(literal.toString().getBytes(StandardCharsets.UTF_8));
+            literal.setLength(0);
+            slots.add(Slot.of(conversion));
+        }
+        literals.add(literal.toString().getBytes(StandardCharsets.UTF_8));
+
+        return new Template(literals.toArray(new byte[0][]), slots.toArray(new Slot[0]));
+    }
+
+    public int getSlotCount() {
+        return slots.length;
+    }
+
+    public void render(OutputStream out, Object... values) throws IOException {
+        if (values.length != slots.length)
+            throw new IllegalArgumentException("Template has " + slots.length + " slots but got " + values.length + " values");
+
+        out.write(literals[0]);
+        for (int i = 0; i < slots.length; i++) {
+            slots[i].write(out, values[i]);
+            out.write(literals[i + 1]);
+        }
+    }
+
+    public byte[] render(Object... values) throws IOException {
+        var out = new ByteArrayOutputStream();
+        render(out, values);
+        return out.toByteArray();
+    }
+
+    public enum Slot {
+        TEXT {
+            void write(OutputStream out, Object value) throws IOException {
+                out.write(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+            }
+        },
+        NUMBER {
+            void write(OutputStream out, Object value) throws IOException {
+                if (!(value instanceof Number number))
+                    throw new IllegalArgumentException("Number slot got " + value);
+                writeDigits(out, number.longValue());
+            }
+        };
+
+        private static Slot of(char conversion) {
+            return switch (conversion) {
+                case 's' -> TEXT;
+                case 'd' -> NUMBER;
+                default -> throw new IllegalArgumentException("Unknown template slot %" + conversion);
+            };
+        }
+
+        abstract void write(OutputStream out, Object value) throws IOException;
+
+        private static void writeDigits(OutputStream out, long value) throws IOException {
+            if (value < 0) {
+                out.write('-');
+                if (value == Long.MIN_VALUE) {
+                    out.write("9223372036854775808".getBytes(StandardCharsets.US_ASCII));
+                    return;
+                }
+                value = -value;
+            }
+
+            var digits = new byte[19];
+            int position = digits.length;
+            do {
+                digits[--position] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value > 0);
+            out.write(digits, position, digits.length - position);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class TemplateCache {
+    private final long revalidateMillis;
+    private final ConcurrentHashMap<Path, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder loads = new LongAdder();
+
+    public TemplateCache(long revalidateMillis) {
+        this.revalidateMillis = revalidateMillis;
+    }
+
+    public Template get(Path path) throws IOException {
+        var key = path.toAbsolutePath().normalize();
+        var entry = entries.get(key);
+        var now = System.currentTimeMillis();
+        if (entry != null && now - entry.lastValidated < revalidateMillis)
+            return entry.template;
+
+        var attributes = Files.readAttributes(key, BasicFileAttributes.class);
+        if (entry != null && entry.matches(attributes)) {
+            entry.lastValidated = now;
+            return entry.template;
+        }
+
+        loads.increment();
+        var template = Template.load(key);
+        entries.put(key, new Entry(template, attributes.lastModifiedTime(), attributes.size(), now));
+        return template;
+    }
+
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    private static class Entry {
+        private final Template template;
+        private final FileTime lastModified;
+        private final long size;
+        private volatile long lastValidated;
+
+        private Entry(Template template, FileTime lastModified, long size, long lastValidated) {
+            this.template = template;
+            this.lastModified = lastModified;
+            this.size = size;
+            this.lastValidated = lastValidated;
+        }
+
+        private boolean matches(BasicFileAttributes attributes) {
+            return lastModified.equals(attributes.lastModifiedTime()) && size == attributes.size();
+        }
+    }
+}
@@ -0,0 +1,418 @@
+package org.example.bench;
+
+import org.example.LatencyHistogram;
+import org.example.Server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+public class LoadGen {
+    private static final Map<String, String> ALIASES = Map.of(
+            "static", "/things/miata.txt",
+            "index", "/hello",
+            "listing", "/listing/things",
+            "guess", "/guess",
+            "ping", "/ping");
+    private static final double[] PERCENTILES = {50, 75, 90, 95, 99, 99.9, 99.99, 100};
+
+    private String host = "127.0.0.1";
+    private int port = -1;
+    private String root = ".";
+    private String engine = "blocking";
+    private String executorMode = "virtual";
+    private int connections = 16;
+    private int rate;
+    private int durationSeconds = 10;
+    private int warmupSeconds = 2;
+    private boolean isReusingConnections = true;
+    private String mix = "static:70,listing:10,guess:10,ping:10";
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        var loadGen = new LoadGen();
+        if (loadGen.parseArgs(args))
+            System.out.print(loadGen.run().format());
+    }
+
+    public boolean parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (Objects.equals(args[i], "-h")) {
+                printHelpMenu();
+                return false;
+            }
+
+            if (Objects.equals(args[i], "-u")) {
+                var target = args[i + 1];
+                var colon = target.lastIndexOf(':');
+                host = target.substring(0, colon);
+                port = Integer.parseInt(target.substring(colon + 1));
+            }
+
+            if (Objects.equals(args[i], "-r"))
+                root = args[i + 1];
+
+            if (Objects.equals(args[i], "-m"))
+                engine = args[i + 1];
+
+            if (Objects.equals(args[i], "-e"))
+                executorMode = args[i + 1];
+
+            if (Objects.equals(args[i], "-c"))
+                connections = Integer.parseInt(args[i + 1]);
+
+            if (Objects.equals(args[i], "-R"))
+                rate = Integer.parseInt(args[i + 1]);
+
+            if (Objects.equals(args[i], "-d"))
+                durationSeconds = Integer.parseInt(args[i + 1]);
+
+            if (Objects.equals(args[i], "-w"))
+                warmupSeconds = Integer.parseInt(args[i + 1]);
+
+            if (Objects.equals(args[i], "-k"))
+                isReusingConnections = Boolean.parseBoolean(args[i + 1]);
+
+            if (Objects.equals(args[i], "-x"))
+                mix = args[i + 1];
+        }
+        return true;
+    }
+
+    private void printHelpMenu() {
+        System.out.println("  -u     Target host:port.  Default starts a server in this process.");
+        System.out.println("  -r     Root directory of the in-process server.  Default is the current working directory.");
+        System.out.println("  -m     Engine of the in-process server: blocking or nio.  Default is blocking.");
+        System.out.println("  -e     Connection executor of the in-process server: virtual or pool.  Default is virtual.");
+        System.out.println("  -c     Number of concurrent connections.  Default is 16.");
+        System.out.println("  -R     Constant request rate per second (open loop).  Default is 0, closed loop.");
+        System.out.println("  -d     Measured duration in seconds.  Default is 10.");
+        System.out.println("  -w     Warmup duration in seconds.  Default is 2.");
+        System.out.println("  -k     Reuse connections: true or false.  Default is true.");
+        System.out.println("  -x     Request mix as target:weight pairs.  Default is " + mix + ".");
+        System.out.println("         Targets are static, index, listing, guess, ping or a path such as /ping/1.");
+        System.out.println("  -h     Print this help message");
+    }
+
+    public static List<String> parseMix(String mix) {
+        var targets = new ArrayList<String>();
+        for (var entry : mix.split(",")) {
+            var separator = entry.lastIndexOf(':');
+            var name = separator == -1 ? entry.trim() : entry.substring(0, separator).trim();
+            var weight = separator == -1 ? 1 : Integer.parseInt(entry.substring(separator + 1).trim());
+            var path = ALIASES.getOrDefault(name, name);
+            if (!path.startsWith("/"))
+                throw new IllegalArgumentException("Unknown request target: " + name);
+            for (int i = 0; i < weight; i++)
+                targets.add(path);
+        }
+        if (targets.isEmpty())
+            throw new IllegalArgumentException("Request mix is empty");
+        return targets;
+    }
+
+    public Result run() throws IOException, InterruptedException {
+        var targets = parseMix(mix);
+        Server server = null;
+        if (port == -1) {
+            server = startServer();
+            port = server.getSocket().getLocalPort();
+        }
+
+        try {
+            var requests = new byte[targets.size()][];
+            for (int i = 0; i < requests.length; i++)
+                requests[i] = requestFor(targets.get(i));
+
+            var result = new Result(connections, rate);
+            var start = System.nanoTime();
+            var measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+            var end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+            var workers = new ArrayList<Thread>();
+            for (int i = 0; i < connections; i++) {
+                var worker = new Worker(requests, result, start, measureFrom, end, i);
+                workers.add(Thread.ofPlatform().name("loadgen-" + i).start(worker::run));
+            }
+            for (var worker : workers)
+                worker.join();
+            result.elapsedNanos = end - measureFrom;
+            return result;
+        } finally {
+            if (server != null)
+                server.stop();
+        }
+    }
+
+    private Server startServer() throws IOException, InterruptedException {
+        var server = new Server();
+        server.parseArgs(new String[]{"-p", "0", "-r", root, "-m", engine, "-e", executorMode});
+        server.run();
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (server.getSocket() == null || !server.getSocket().isBound()) {
+            if (System.nanoTime() > deadline)
+                throw new IOException("Server did not start within 5 seconds");
+            Thread.sleep(10);
+        }
+        return server;
+    }
+
+    private byte[] requestFor(String path) {
+        var request = "GET " + path + " HTTP/1.1\r\nHost: " + host + ":" + port + "\r\n"
+                + (isReusingConnections ? "" : "Connection: close\r\n") + "\r\n";
+        return request.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private class Worker {
+        private final byte[][] requests;
+        private final Result result;
+        private final long measureFrom;
+        private final long end;
+        private final long intervalNanos;
+        private long nextSend;
+        private Socket socket;
+        private InputStream in;
+        private OutputStream out;
+
+        Worker(byte[][] requests, Result result, long start, long measureFrom, long end, int index) {
+            this.requests = requests;
+            this.result = result;
+            this.measureFrom = measureFrom;
+            this.end = end;
+            this.intervalNanos = rate > 0 ? TimeUnit.SECONDS.toNanos(connections) / rate : 0;
+            this.nextSend = start + intervalNanos * index / connections;
+        }
+
+        void run() {
+            var random = ThreadLocalRandom.current();
+            try {
+                while (true) {
+                    long intended;
+                    if (intervalNanos > 0) {
+                        intended = nextSend;
+                        nextSend += intervalNanos;
+                        if (intended >= end)
+                            return;
+                        long wait;
+                        while ((wait = intended - System.nanoTime()) > 0)
+                            LockSupport.parkNanos(wait);
+                    } else {
+                        intended = System.nanoTime();
+                        if (intended >= end)
+                            return;
+                    }
+
+                    var sent = System.nanoTime();
+                    var isSuccess = exchange(requests[random.nextInt(requests.length)]);
+                    var done = System.nanoTime();
+                    if (intended >= measureFrom) {
+                        result.record(done - intended, done - sent, isSuccess);
+                    }
+                }
+            } finally {
+                disconnect();
+            }
+        }
+
+        private boolean exchange(byte[] request) {
+            try {
+                if (socket == null)
+                    connect();
+                out.write(request);
+                out.flush();
+                var status = readResponse();
+                if (!isReusingConnections || status.isClosing)
+                    disconnect();
+                return status.code >= 200 && status.code < 400;
+            } catch (IOException | RuntimeException e) {
+                disconnect();
+                return false;
+            }
+        }
+
+        private void connect() throws IOException {
+            socket = new Socket();
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(host, port), 5000);
+            socket.setSoTimeout(30_000);
+            in = new BufferedInputStream(socket.getInputStream(), 64 * 1024);
+            out = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        private void disconnect() {
+            if (socket == null)
+                return;
+            try {
+                socket.close();
+            } catch (IOException ioe) {
+                System.out.println(ioe.getMessage());
+            }
+            socket = null;
+        }
+
+        private Status readResponse() throws IOException {
+            var code = parseStatusCode(readLine(in));
+            long contentLength = -1;
+            var isChunked = false;
+            var isClosing = false;
+            String line;
+            while (!(line = readLine(in)).isEmpty()) {
+                var colon = line.indexOf(':');
+                if (colon == -1)
+                    continue;
+                var name = line.substring(0, colon).trim();
+                var value = line.substring(colon + 1).trim();
+                if (name.equalsIgnoreCase("Content-Length"))
+                    contentLength = parseNumber(value, 10);
+                else if (name.equalsIgnoreCase("Transfer-Encoding"))
+                    isChunked = value.toLowerCase(Locale.ROOT).contains("chunked");
+                else if (name.equalsIgnoreCase("Connection"))
+                    isClosing = value.equalsIgnoreCase("close");
+            }
+
+            if (code == 204 || code == 304) {
+                contentLength = 0;
+            } else if (isChunked) {
+                skipChunkedBody();
+                return new Status(code, isClosing);
+            } else if (contentLength == -1) {
+                result.bytes.add(in.transferTo(OutputStream.nullOutputStream()));
+                return new Status(code, true);
+            }
+            skip(contentLength);
+            return new Status(code, isClosing);
+        }
+
+        private void skipChunkedBody() throws IOException {
+            while (true) {
+                var sizeLine = readLine(in);
+                var extension = sizeLine.indexOf(';');
+                var size = parseNumber((extension == -1 ? sizeLine : sizeLine.substring(0, extension)).trim(), 16);
+                if (size == 0) {
+                    while (!readLine(in).isEmpty()) {}
+                    return;
+                }
+                skip(size);
+                readLine(in);
+            }
+        }
+
+        private void skip(long count) throws IOException {
+            in.skipNBytes(count);
+            result.bytes.add(count);
+        }
+    }
+
+    private static int parseStatusCode(String statusLine) throws IOException {
+        if (statusLine.length() < 12 || !statusLine.startsWith("HTTP/") || statusLine.charAt(8) != ' ')
+            throw new IOException("Malformed status line: " + statusLine);
+        var code = (int) parseNumber(statusLine.substring(9, 12), 10);
+        if (code < 100)
+            throw new IOException("Malformed status line: " + statusLine);
+        return code;
+    }
+
+    private static long parseNumber(String value, int radix) throws IOException {
+        try {
+            var number = Long.parseLong(value, radix);
+            if (number < 0)
+                throw new IOException("Malformed number in response: " + value);
+            return number;
+        } catch (NumberFormatException nfe) {
+            throw new IOException("Malformed number in response: " + value);
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        var line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b == -1)
+                throw new EOFException("Connection closed mid-response");
+            if (b != '\r')
+                line.append((char) b);
+        }
+        return line.toString();
+    }
+
+    private record Status(int code, boolean isClosing) {}
+
+    public static class Result {
+        private final int connections;
+        private final int rate;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LatencyHistogram serviceTime = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private long elapsedNanos;
+
+        private Result(int connections, int rate) {
+            this.connections = connections;
+            this.rate = rate;
+        }
+
+        private void record(long latencyNanos, long serviceNanos, boolean isSuccess) {
+            latency.record(latencyNanos);
+            serviceTime.record(serviceNanos);
+            if (!isSuccess)
+                errors.increment();
+        }
+
+        public long getRequestCount() {
+            return latency.getCount();
+        }
+
+        public long getErrorCount() {
+            return errors.sum();
+        }
+
+        public long getBytesRead() {
+            return bytes.sum();
+        }
+
+        public double getThroughput() {
+            return getRequestCount() / (elapsedNanos / 1e9);
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        public LatencyHistogram getServiceTime() {
+            return serviceTime;
+        }
+
+        public String format() {
+            var report = new StringBuilder();
+            report.append(String.format("Mode: %s, %d connections%n",
+                    rate > 0 ? "open loop at " + rate + " req/s" : "closed loop", connections));
+            report.append(String.format("Requests: %d  Errors: %d  Bytes read: %d%n",
+                    getRequestCount(), getErrorCount(), getBytesRead()));
+            report.append(String.format("Throughput: %.1f req/s over %.1f s%n", getThroughput(), elapsedNanos / 1e9));
+            report.append(rate > 0
+                    ? "Latency (ms)  corrected for coordinated omission / service time\n"
+                    : "Latency (ms)\n");
+            for (var percentile : PERCENTILES) {
+                report.append(String.format("  %7s%%  %10.3f", percentile, latency.getValueAtPercentile(percentile) / 1e6));
+                if (rate > 0)
+                    report.append(String.format("  %10.3f", serviceTime.getValueAtPercentile(percentile) / 1e6));
+                report.append('\n');
+            }
+            report.append(String.format("  mean      %10.3f%n", getRequestCount() == 0 ? 0 : latency.getSum() / 1e6 / getRequestCount()));
+            return report.toString();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessLogTest {
+    @TempDir
+    Path logs;
+
+    @Test
+    void writesOneStructuredLinePerRequest() throws IOException {
+        var file = logs.resolve("access.log");
+        try (var log = new AccessLog(file, 16, 1024 * 1024, 2, AccessLog.DROP)) {
+            assertTrue(log.log("GET", "/ping", "200 OK", 123, 4_567_000, "10.0.0.1"));
+            assertTrue(log.log("POST", "/guess", "404 Not Found", 0, 999, "10.0.0.2"));
+        }
+
+        var lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).matches("time=\\S+ client=10\\.0\\.0\\.1 method=GET path=\"/ping\" status=200 bytes=123 duration_us=4567"));
+        assertTrue(lines.get(1).endsWith("client=10.0.0.2 method=POST path=\"/guess\" status=404 bytes=0 duration_us=0"));
+    }
+
+    @Test
+    void roundsCapacityUpToAPowerOfTwo() throws IOException {
+        try (var log = new AccessLog(logs.resolve("access.log"), 1000, 1024, 1, AccessLog.DROP)) {
+            assertEquals(1024, log.getCapacity());
+        }
+    }
+
+    @Test
+    void rejectsUnknownOverflowPolicy() {
+        assertThrows(IllegalArgumentException.class, () -> new AccessLog(logs.resolve("access.log"), 16, 1024, 1, "spill"));
+    }
+
+    @Test
+    void dropPolicyNeverBlocksWhenTheBufferIsFull() throws IOException {
+        var file = logs.resolve("access.log");
+        var entries = 100_000;
+        long accepted = 0;
+        try (var log = new AccessLog(file, 4, 64 * 1024 * 1024, 1, AccessLog.DROP)) {
+            for (int i = 0; i < entries; i++) {
+                if (log.log("GET", "/", "200 OK", i, i, "-"))
+                    accepted++;
+            }
+            log.close();
+
+            assertEquals(entries, accepted + log.getDroppedCount());
+            assertEquals(accepted, log.getWrittenCount());
+        }
+        assertEquals(accepted, Files.readAllLines(file).size());
+    }
+
+    @Test
+    void blockPolicyKeepsEveryEntryFromConcurrentWriters() throws IOException, InterruptedException {
+        var file = logs.resolve("access.log");
+        var threads = new ArrayList<Thread>();
+        var perThread = 5_000;
+        var start = new CountDownLatch(1);
+        try (var log = new AccessLog(file, 8, 64 * 1024 * 1024, 1, AccessLog.BLOCK)) {
+            for (int t = 0; t < 4; t++) {
+                var client = "client-" + t;
+                threads.add(Thread.ofPlatform().start(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException ie) {
+                        return;
+                    }
+                    for (int i = 0; i < perThread; i++)
+                        log.log("GET", "/ping", "200 OK", i, i, client);
+                }));
+            }
+            start.countDown();
+            for (var thread : threads)
+                thread.join();
+            log.close();
+
+            assertEquals(0, log.getDroppedCount());
+        }
+
+        var lines = Files.readAllLines(file);
+        assertEquals(4 * perThread, lines.size());
+        assertEquals(perThread, lines.stream().filter(line -> line.contains("client=client-3 ")).count());
+    }
+
+    @Test
+    void rollsFilesWhenTheSizeLimitIsReached() throws IOException {
+        var file = logs.resolve("access.log");
+        try (var log = new AccessLog(file, 4, 200, 2, AccessLog.BLOCK)) {
+            for (int i = 0; i < 20; i++)
+                log.log("GET", "/ping/" + i, "200 OK", i, i, "-");
+            log.close();
+
+            assertTrue(log.getRotationCount() > 0);
+        }
+
+        assertTrue(Files.exists(file));
+        assertTrue(Files.exists(logs.resolve("access.log.1")));
+        assertFalse(Files.exists(logs.resolve("access.log.3")));
+        assertTrue(Files.readAllLines(file).size() < 20);
+    }
+
+    @Test
+    void appendsToAnExistingLog() throws IOException {
+        var file = logs.resolve("access.log");
+        Files.writeString(file, "earlier\n");
+        try (var log = new AccessLog(file, 4, 1024 * 1024, 1, AccessLog.DROP)) {
+            log.log("GET", "/", "200 OK", 1, 1, "-");
+        }
+
+        var lines = Files.readAllLines(file);
+        assertEquals("earlier", lines.get(0));
+        assertEquals(2, lines.size());
+    }
+}
@@ -0,0 +1,36 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BodyInputStreamTest {
+
+    @Test
+    void readsOnlyContentLengthBytes() throws IOException {
+        var in = new ByteArrayInputStream("hello world".getBytes());
+        var body = new BodyInputStream(in, 5);
+
+        assertEquals("hello", new String(body.readAllBytes()));
+        assertEquals(-1, body.read());
+        assertEquals(' ', in.read());
+    }
+
+    @Test
+    void closeDrainsUnreadBody() throws IOException {
+        var in = new ByteArrayInputStream("hello world".getBytes());
+        try (var body = new BodyInputStream(in, 6)) {
+            assertEquals('h', body.read());
+        }
+        assertEquals("world", new String(in.readAllBytes()));
+    }
+
+    @Test
+    void throwsWhenBodyEndsEarly() {
+        var body = new BodyInputStream(new ByteArrayInputStream("short".getBytes()), 10);
+        assertThrows(IOException.class, body::readAllBytes);
+    }
+}
@@ -0,0 +1,84 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ByteRangesTest {
+
+    @Test
+    void parseSingleRange() {
+        assertEquals(List.of(new ByteRanges.Range(0, 99)), ByteRanges.parse("bytes=0-99", 1000));
+    }
+
+    @Test
+    void parseOpenEndedRange() {
+        assertEquals(List.of(new ByteRanges.Range(900, 999)), ByteRanges.parse("bytes=900-", 1000));
+    }
+
+    @Test
+    void parseSuffixRange() {
+        assertEquals(List.of(new ByteRanges.Range(500, 999)), ByteRanges.parse("bytes=-500", 1000));
+        assertEquals(List.of(new ByteRanges.Range(0, 999)), ByteRanges.parse("bytes=-5000", 1000));
+    }
+
+    @Test
+    void parseClampsEndToLength() {
+        assertEquals(List.of(new ByteRanges.Range(10, 999)), ByteRanges.parse("bytes=10-5000", 1000));
+    }
+
+    @Test
+    void parseMultipleRanges() {
+        var expected = List.of(new ByteRanges.Range(0, 0), new ByteRanges.Range(10, 19), new ByteRanges.Range(999, 999));
+        assertEquals(expected, ByteRanges.parse("bytes=0-0, 10-19,-1", 1000));
+    }
+
+    @Test
+    void parseDropsUnsatisfiableRanges() {
+        assertEquals(List.of(new ByteRanges.Range(0, 9)), ByteRanges.parse("bytes=0-9, 2000-3000", 1000));
+        assertEquals(List.of(), ByteRanges.parse("bytes=1000-", 1000));
+        assertEquals(List.of(), ByteRanges.parse("bytes=-0", 1000));
+    }
+
+    @Test
+    void parseIgnoresInvalidHeaders() {
+        assertNull(ByteRanges.parse("items=0-9", 1000));
+        assertNull(ByteRanges.parse("bytes=9-0", 1000));
+        assertNull(ByteRanges.parse("bytes=abc", 1000));
+        assertNull(ByteRanges.parse("bytes=+1-5", 1000));
+        assertNull(ByteRanges.parse("bytes=-", 1000));
+    }
+
+    @Test
+    void parseIgnoresTooManyRanges() {
+        var range = "bytes=" + "0-1,".repeat(ByteRanges.MAX_RANGES) + "0-1";
+        assertNull(ByteRanges.parse(range, 1000));
+    }
+
+    @Test
+    void sliceBytesSharesContent() {
+        var content = "0123456789".getBytes();
+        var slice = (Response.Bytes) ByteRanges.slice(new Response.Bytes(content), new ByteRanges.Range(2, 5));
+
+        assertSame(content, slice.content());
+        assertEquals(2, slice.offset());
+        assertEquals(4, slice.length());
+    }
+
+    @Test
+    void sliceFileRegionOffsetsPosition() {
+        var region = new Response.FileRegion(Path.of("things/miata.gif"), 100, 1000);
+        var slice = ByteRanges.slice(region, new ByteRanges.Range(10, 19));
+        assertEquals(new Response.FileRegion(Path.of("things/miata.gif"), 110, 10), slice);
+    }
+
+    @Test
+    void sliceRejectsGeneratedBodies() {
+        var generated = new Response.Generated(out -> {});
+        assertFalse(ByteRanges.isSliceable(generated));
+        assertThrows(IllegalArgumentException.class, () -> ByteRanges.slice(generated, new ByteRanges.Range(0, 1)));
+    }
+}
@@ -0,0 +1,68 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressionTest {
+
+    @Test
+    void negotiateReturnsNullWithoutHeader() {
+        assertNull(Compression.negotiate(null));
+    }
+
+    @Test
+    void negotiatePrefersGzip() {
+        assertEquals("gzip", Compression.negotiate("deflate, gzip"));
+    }
+
+    @Test
+    void negotiateHonoursQualityValues() {
+        assertEquals("deflate", Compression.negotiate("gzip;q=0.5, deflate"));
+    }
+
+    @Test
+    void negotiateSkipsRefusedCodings() {
+        assertNull(Compression.negotiate("gzip;q=0, deflate;q=0"));
+        assertNull(Compression.negotiate("br, identity"));
+    }
+
+    @Test
+    void negotiateAcceptsWildcard() {
+        assertEquals("gzip", Compression.negotiate("*"));
+        assertEquals("deflate", Compression.negotiate("gzip;q=0, *"));
+    }
+
+    @Test
+    void isCompressibleForText() {
+        assertTrue(Compression.isCompressible("Content-Type: text/html\r\n"));
+        assertTrue(Compression.isCompressible("Content-Type: text/plain; charset=utf-8\r\n"));
+        assertTrue(Compression.isCompressible("Content-Type: application/json\r\n"));
+    }
+
+    @Test
+    void isCompressibleFalseForImages() {
+        assertFalse(Compression.isCompressible("Content-Type: image/gif\r\n"));
+        assertFalse(Compression.isCompressible("Content-Type: image/png\r\n"));
+    }
+
+    @Test
+    void compressRoundTripsGzip() throws IOException {
+        var content = "hello ".repeat(100).getBytes();
+        var compressed = Compression.compress(content, "gzip");
+        assertTrue(compressed.length < content.length);
+        assertArrayEquals(content, new GZIPInputStream(new ByteArrayInputStream(compressed)).readAllBytes());
+    }
+
+    @Test
+    void compressRoundTripsDeflate() throws IOException {
+        var content = "hello ".repeat(100).getBytes();
+        var compressed = Compression.compress(content, "deflate");
+        assertArrayEquals(content, new InflaterInputStream(new ByteArrayInputStream(compressed)).readAllBytes());
+    }
+}
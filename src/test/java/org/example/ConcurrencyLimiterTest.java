@@ -0,0 +1,98 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimiterTest {
+    private static final long FAST = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(50);
+
+    @Test
+    void fixedLimiterRejectsBeyondItsLimit() {
+        var limiter = ConcurrencyLimiter.fixed(2);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(1, limiter.getRejectedCount());
+
+        limiter.release(FAST);
+        assertTrue(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    void saturatedOnlyWhileInFlightRequestsReachTheLimit() {
+        var limiter = ConcurrencyLimiter.fixed(1);
+        assertFalse(limiter.isSaturated());
+
+        limiter.tryAcquire();
+        assertTrue(limiter.isSaturated());
+
+        limiter.release(FAST);
+        assertFalse(limiter.isSaturated());
+    }
+
+    @Test
+    void fixedLimiterNeverAdapts() {
+        var limiter = ConcurrencyLimiter.fixed(10);
+        for (int i = 0; i < 5000; i++) {
+            limiter.tryAcquire();
+            limiter.release(i % 2 == 0 ? FAST : SLOW);
+        }
+
+        assertEquals(10, limiter.getLimit());
+        assertFalse(limiter.isAdaptive());
+    }
+
+    @Test
+    void ofSelectsLimiterByName() {
+        assertFalse(ConcurrencyLimiter.of("fixed", 5).isAdaptive());
+        assertTrue(ConcurrencyLimiter.of("aimd", 5).isAdaptive());
+        assertThrows(IllegalArgumentException.class, () -> ConcurrencyLimiter.of("gradient", 5));
+    }
+
+    @Test
+    void adaptiveLimiterStartsBelowItsMaximum() {
+        assertEquals(64, ConcurrencyLimiter.adaptive(ConcurrencyLimiter.UNLIMITED).getLimit());
+        assertEquals(8, ConcurrencyLimiter.adaptive(8).getLimit());
+    }
+
+    @Test
+    void adaptiveLimiterBacksOffWhenLatencyRisesAboveBaseline() {
+        var limiter = ConcurrencyLimiter.adaptive(1000);
+        runAt(limiter, 32, FAST, 1000);
+        var before = limiter.getLimit();
+        assertTrue(limiter.getBaselineLatency() > 0);
+
+        runAt(limiter, 32, SLOW, 2000);
+
+        assertTrue(limiter.getLimit() < before / 2, "limit " + limiter.getLimit() + " from " + before);
+        assertTrue(limiter.getLimit() >= 1);
+    }
+
+    @Test
+    void adaptiveLimiterGrowsWhileLatencyStaysLowAndItIsBusy() {
+        var limiter = ConcurrencyLimiter.adaptive(1000);
+        var before = limiter.getLimit();
+
+        runAt(limiter, before, FAST, 20_000);
+
+        assertTrue(limiter.getLimit() > before);
+        assertTrue(limiter.getLimit() <= 1000);
+    }
+
+    private static void runAt(ConcurrencyLimiter limiter, int concurrency, long latency, int samples) {
+        for (int i = 0; i < samples; i++) {
+            int acquired = 0;
+            while (acquired < concurrency && limiter.tryAcquire())
+                acquired++;
+            for (int j = 0; j < acquired; j++)
+                limiter.release(latency);
+            i += Math.max(acquired - 1, 0);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionExecutorTest {
+
+    @Test
+    void ofReturnsVirtualExecutor() {
+        assertEquals("virtual", ConnectionExecutor.of("virtual", 1).getMode());
+    }
+
+    @Test
+    void ofReturnsPoolExecutor() {
+        assertEquals("pool", ConnectionExecutor.of("pool", 1).getMode());
+    }
+
+    @Test
+    void ofRejectsUnknownMode() {
+        assertThrows(IllegalArgumentException.class, () -> ConnectionExecutor.of("fork", 1));
+    }
+
+    @Test
+    void virtualExecutorRunsConnectionsOnVirtualThreads() throws InterruptedException {
+        var executor = ConnectionExecutor.virtualThreads();
+        var ran = new CountDownLatch(1);
+        var isVirtual = new boolean[1];
+
+        executor.execute(() -> {
+            isVirtual[0] = Thread.currentThread().isVirtual();
+            ran.countDown();
+        });
+
+        assertTrue(ran.await(1, TimeUnit.SECONDS));
+        assertTrue(isVirtual[0]);
+        executor.shutdown();
+    }
+
+    @Test
+    void poolExecutorQueuesConnectionsBeyondItsThreads() throws InterruptedException {
+        var executor = ConnectionExecutor.platformPool(2);
+        var started = new CountDownLatch(2);
+        var release = new CountDownLatch(1);
+
+        for (int i = 0; i < 5; i++) {
+            executor.execute(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        assertEquals(2, executor.getActiveCount());
+        assertEquals(3, executor.getQueuedCount());
+
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+        assertEquals(0, executor.getActiveCount());
+        assertEquals(0, executor.getQueuedCount());
+    }
+}
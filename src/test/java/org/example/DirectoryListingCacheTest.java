@@ -0,0 +1,160 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectoryListingCacheTest {
+    @TempDir
+    Path root;
+    private DirectoryListingCache cache;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (cache != null)
+            cache.close();
+    }
+
+    private void createFiles(Path directory, String... names) throws IOException {
+        for (var name : names)
+            Files.createFile(directory.resolve(name));
+    }
+
+    private String listing(Path directory, String after) throws IOException {
+        return new String(cache.get(directory, after));
+    }
+
+    @Test
+    void rendersSortedEntriesWithListingLinksForDirectories() throws IOException {
+        cache = new DirectoryListingCache(root, 100, 10);
+        createFiles(root, "b.txt", "a.txt");
+        Files.createDirectory(root.resolve("c"));
+
+        var expected = "<h1>Directory Listing for .</h1>\n<ul>"
+                + "<li><a href=\"/a.txt\">a.txt</a></li>"
+                + "<li><a href=\"/b.txt\">b.txt</a></li>"
+                + "<li><a href=\"/listing/c\">c</a></li>"
+                + "</ul>";
+        assertEquals(expected, listing(root, null));
+    }
+
+    @Test
+    void rendersPathsRelativeToRoot() throws IOException {
+        cache = new DirectoryListingCache(root, 100, 10);
+        var nested = Files.createDirectory(root.resolve("nested"));
+        createFiles(nested, "file.txt");
+
+        var expected = "<h1>Directory Listing for ./nested</h1>\n<ul>"
+                + "<li><a href=\"/nested/file.txt\">file.txt</a></li>"
+                + "</ul>";
+        assertEquals(expected, listing(nested, null));
+    }
+
+    @Test
+    void paginatesAfterCursor() throws IOException {
+        cache = new DirectoryListingCache(root, 2, 10);
+        createFiles(root, "e", "d", "c", "b", "a");
+
+        var first = listing(root, null);
+        assertTrue(first.contains(">a</a></li><li><a href=\"/b\">b</a></li></ul>"));
+        assertTrue(first.endsWith("\n<a href=\"/listing?after=b\">Next</a>"));
+
+        var second = listing(root, "b");
+        assertTrue(second.contains("<ul><li><a href=\"/c\">c</a></li><li><a href=\"/d\">d</a></li></ul>"));
+        assertTrue(second.endsWith("?after=d\">Next</a>"));
+
+        var last = listing(root, "d");
+        assertTrue(last.endsWith("<ul><li><a href=\"/e\">e</a></li></ul>"));
+    }
+
+    @Test
+    void encodesCursorInNextLink() throws IOException {
+        cache = new DirectoryListingCache(root, 1, 10);
+        createFiles(root, "a b&c", "z");
+
+        assertTrue(listing(root, null).endsWith("?after=a+b%26c\">Next</a>"));
+    }
+
+    @Test
+    void servesRepeatedRequestsFromCache() throws IOException {
+        cache = new DirectoryListingCache(root, 100, 10);
+        createFiles(root, "a.txt");
+
+        var first = cache.get(root, null);
+        var second = cache.get(root, null);
+
+        assertSame(first, second);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    void invalidatesWhenDirectoryChanges() throws IOException, InterruptedException {
+        cache = new DirectoryListingCache(root, 100, 10);
+        createFiles(root, "a.txt");
+        assertFalse(listing(root, null).contains("b.txt"));
+
+        createFiles(root, "b.txt");
+        var deadline = System.currentTimeMillis() + 30_000;
+        while (cache.getInvalidationCount() == 0 && System.currentTimeMillis() < deadline)
+            Thread.sleep(20);
+
+        assertEquals(1, cache.getInvalidationCount());
+        assertTrue(listing(root, null).contains("b.txt"));
+    }
+
+    @Test
+    void boundsCachedDirectories() throws IOException {
+        cache = new DirectoryListingCache(root, 100, 2);
+        for (var name : new String[]{"a", "b", "c", "d"})
+            cache.get(Files.createDirectory(root.resolve(name)), null);
+
+        assertEquals(2, cache.getDirectoryCount());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedDirectory() throws IOException {
+        cache = new DirectoryListingCache(root, 100, 2);
+        var a = Files.createDirectory(root.resolve("a"));
+        var b = Files.createDirectory(root.resolve("b"));
+        cache.get(a, null);
+        cache.get(b, null);
+        cache.get(a, null);
+        cache.get(Files.createDirectory(root.resolve("c")), null);
+
+        cache.get(a, null);
+        assertEquals(2, cache.getHitCount());
+        cache.get(b, null);
+        assertEquals(4, cache.getMissCount());
+    }
+
+    @Test
+    void doesNotCachePagesForCursorsThatAreNotEntries() throws IOException {
+        cache = new DirectoryListingCache(root, 1, 10);
+        createFiles(root, "a.txt", "b.txt");
+
+        listing(root, "missing");
+        listing(root, "missing");
+        listing(root, "a.txt");
+        listing(root, "a.txt");
+
+        assertEquals(3, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    void rendersUncachedAfterClose() throws IOException {
+        cache = new DirectoryListingCache(root, 100, 10);
+        createFiles(root, "a.txt");
+        cache.close();
+
+        assertTrue(listing(root, null).contains("a.txt"));
+        assertEquals(0, cache.getDirectoryCount());
+    }
+}
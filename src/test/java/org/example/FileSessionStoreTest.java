@@ -0,0 +1,70 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSessionStoreTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void savesAndLoadsGameState() throws IOException {
+        var store = new FileSessionStore(directory.resolve("sessions"));
+        var game = new GuessingGame(42, 7);
+        game.handleGuess(10);
+        store.save("abc", game);
+
+        var loaded = store.load("abc");
+        assertEquals(42, loaded.getAnswer());
+        assertEquals(6, loaded.getGuessesLeft());
+    }
+
+    @Test
+    void loadReturnsNullForUnknownSession() throws IOException {
+        assertNull(new FileSessionStore(directory).load("missing"));
+    }
+
+    @Test
+    void saveReplacesPreviousStateWithoutLeavingTempFiles() throws IOException {
+        var store = new FileSessionStore(directory);
+        store.save("abc", new GuessingGame(1, 7));
+        store.save("abc", new GuessingGame(2, 3));
+
+        assertEquals(2, store.load("abc").getAnswer());
+        try (var files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void removeDeletesSessionFile() throws IOException {
+        var store = new FileSessionStore(directory);
+        store.save("abc", new GuessingGame(1, 7));
+        store.remove("abc");
+
+        assertNull(store.load("abc"));
+    }
+
+    @Test
+    void loadRejectsMalformedFiles() throws IOException {
+        var store = new FileSessionStore(directory);
+        Files.writeString(directory.resolve("abc.session"), "garbage");
+
+        assertThrows(IOException.class, () -> store.load("abc"));
+    }
+
+    @Test
+    void sessionManagerAdoptsSessionsSavedBeforeRestart() throws IOException {
+        var id = new SessionManager(new FileSessionStore(directory), 60_000, 100).start(null, new GuessingGame(33, 7));
+        var restarted = new SessionManager(new FileSessionStore(directory), 60_000, 100);
+
+        assertEquals(33, restarted.get(id).getAnswer());
+        assertEquals(1, restarted.size());
+    }
+}
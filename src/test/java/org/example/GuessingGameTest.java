@@ -100,4 +100,10 @@ public class GuessingGameTest {
         assertEquals("You guessed it! 10 is the number!", guessingGame.handleGuess(10));
     }
 
+    @Test
+    void constructorRestoresSavedState() {
+        var restored = new GuessingGame(12, 3);
+        assertEquals(12, restored.getAnswer());
+        assertEquals(3, restored.getGuessesLeft());
+    }
 }
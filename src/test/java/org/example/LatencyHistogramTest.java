@@ -0,0 +1,88 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class LatencyHistogramTest {
+    @Test
+    void smallValuesAreRecordedExactly() {
+        for (long value = 0; value < 16; value++) {
+            assertEquals(value, LatencyHistogram.indexOf(value));
+            assertEquals(value, LatencyHistogram.highestValueIn((int) value));
+        }
+    }
+
+    @Test
+    void bucketsCoverTheirValuesWithBoundedError() {
+        for (long value = 16; value < 1L << 40; value = value * 3 / 2 + 1) {
+            var highest = LatencyHistogram.highestValueIn(LatencyHistogram.indexOf(value));
+            assertTrue(highest >= value);
+            assertTrue(highest - value <= value / 16, "value " + value + " reported as " + highest);
+        }
+        assertTrue(LatencyHistogram.highestValueIn(LatencyHistogram.indexOf(Long.MAX_VALUE)) >= Long.MAX_VALUE - 1);
+    }
+
+    @Test
+    void emptyHistogramReportsZero() {
+        var histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+
+    @Test
+    void reportsPercentilesWithinBucketPrecision() {
+        var histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10_000; value++)
+            histogram.record(value * 1000);
+
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(10_000_000, histogram.getMax());
+        assertEquals(50_005_000_000L, histogram.getSum());
+        assertEquals(5_000_000, histogram.getValueAtPercentile(50), 5_000_000 / 16.0);
+        assertEquals(9_900_000, histogram.getValueAtPercentile(99), 9_900_000 / 16.0);
+        assertEquals(10_000_000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void percentilesNeverExceedTheMaximum() {
+        var histogram = new LatencyHistogram();
+        histogram.record(1_000_001);
+
+        assertEquals(1_000_001, histogram.getValueAtPercentile(50));
+    }
+
+    @Test
+    void negativeValuesCountAsZero() {
+        var histogram = new LatencyHistogram();
+        histogram.record(-5);
+
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+    }
+
+    @Test
+    void recordingDoesNotAllocate() {
+        var threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        var allocations = (com.sun.management.ThreadMXBean) threads;
+        assumeTrue(allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled());
+
+        var histogram = new LatencyHistogram();
+        var iterations = 100_000;
+        for (int i = 0; i < iterations; i++)
+            histogram.record(i * 37L);
+
+        var threadId = Thread.currentThread().threadId();
+        var before = allocations.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++)
+            histogram.record(i * 37L);
+        var allocated = allocations.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(allocated < 1024, "recording allocated " + allocated + " bytes");
+    }
+}
@@ -0,0 +1,42 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LruIndexTest {
+    @Test
+    void pollEldestReturnsKeysInInsertionOrder() {
+        var index = new LruIndex<String>();
+        index.add("a");
+        index.add("b");
+
+        assertEquals("a", index.pollEldest());
+        assertEquals("b", index.pollEldest());
+        assertNull(index.pollEldest());
+    }
+
+    @Test
+    void recordedAccessMovesKeyToMostRecent() {
+        var index = new LruIndex<String>();
+        index.add("a");
+        index.add("b");
+        index.add("c");
+        index.recordAccess("a");
+
+        assertEquals("b", index.pollEldest());
+        assertEquals("c", index.pollEldest());
+        assertEquals("a", index.pollEldest());
+    }
+
+    @Test
+    void accessToRemovedKeyDoesNotReAddIt() {
+        var index = new LruIndex<String>();
+        index.add("a");
+        index.remove("a");
+        index.recordAccess("a");
+
+        assertNull(index.pollEldest());
+        assertEquals(0, index.size());
+    }
+}
@@ -0,0 +1,82 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsTest {
+    @Test
+    void countsRequestsByRouteAndStatusClass() {
+        var metrics = new Metrics();
+        metrics.recordHandle("/ping", "200 OK", 1000);
+        metrics.recordHandle("/ping", "404 Not Found", 2000);
+        metrics.recordHandle("/guess", "200 OK", 3000);
+
+        assertEquals(2, metrics.getRequestCount("/ping"));
+        assertEquals(1, metrics.getRequestCount("/guess"));
+        assertEquals(0, metrics.getRequestCount("/missing"));
+        assertEquals(2, metrics.getHandleLatency("/ping").getCount());
+        assertNull(metrics.getHandleLatency("/missing"));
+    }
+
+    @Test
+    void tracksConnectionsAndBytes() {
+        var metrics = new Metrics();
+        metrics.connectionOpened();
+        metrics.connectionOpened();
+        metrics.connectionClosed();
+        metrics.recordBytesIn(10);
+        metrics.recordWrite(500, 20);
+        metrics.recordBytesOut(5);
+
+        assertEquals(2, metrics.getAcceptedConnections());
+        assertEquals(1, metrics.getActiveConnections());
+        assertEquals(10, metrics.getBytesIn());
+        assertEquals(25, metrics.getBytesOut());
+        assertEquals(1, metrics.getWriteLatency().getCount());
+    }
+
+    @Test
+    void rendersPrometheusTextFormat() {
+        var metrics = new Metrics();
+        metrics.connectionOpened();
+        metrics.recordParse(2_000);
+        metrics.recordHandle("/ping", "200 OK", 1_000_000);
+
+        var text = metrics.toPrometheus();
+
+        assertTrue(text.contains("# TYPE http_connections_accepted_total counter\nhttp_connections_accepted_total 1\n"));
+        assertTrue(text.contains("# TYPE http_connections_active gauge\nhttp_connections_active 1\n"));
+        assertTrue(text.contains("http_requests_total{route=\"/ping\",code=\"2xx\"} 1\n"));
+        assertFalse(text.contains("code=\"4xx\""));
+        assertTrue(text.contains("# TYPE http_handle_seconds summary\n"));
+        assertTrue(text.contains("http_handle_seconds{route=\"/ping\",quantile=\"0.99\"} 0.001\n"));
+        assertTrue(text.contains("http_handle_seconds_count{route=\"/ping\"} 1\n"));
+        assertTrue(text.contains("http_parse_seconds{quantile=\"0.5\"} 2.0E-6\n"));
+        assertTrue(text.contains("http_parse_seconds_count 1\n"));
+        assertTrue(text.contains("http_write_seconds_count 0\n"));
+    }
+
+    @Test
+    void escapesRouteLabels() {
+        var metrics = new Metrics();
+        metrics.recordHandle("/a\"b", "200 OK", 1);
+
+        assertTrue(metrics.toPrometheus().contains("route=\"/a\\\"b\""));
+    }
+
+    @Test
+    void countingInputStreamRecordsBytesRead() throws IOException {
+        var metrics = new Metrics();
+        var in = new Metrics.CountingInputStream(new ByteArrayInputStream("hello".getBytes()), metrics);
+
+        in.read();
+        in.read(new byte[10], 0, 10);
+        in.read();
+
+        assertEquals(5, metrics.getBytesIn());
+    }
+}
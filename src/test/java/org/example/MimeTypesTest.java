@@ -0,0 +1,84 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MimeTypesTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void looksUpBuiltInTypes() {
+        var mimeTypes = MimeTypes.defaults();
+
+        assertEquals("text/html", mimeTypes.forExtension("html").name());
+        assertEquals("image/png", mimeTypes.forExtension("png").name());
+        assertEquals("application/json", mimeTypes.forExtension("json").name());
+        assertEquals("font/woff2", mimeTypes.forExtension("woff2").name());
+    }
+
+    @Test
+    void headerIsCRLFTerminated() {
+        var type = MimeTypes.defaults().forExtension("css");
+
+        assertEquals("Content-Type: text/css\r\n", type.header());
+        assertArrayEquals(type.header().getBytes(), type.headerBytes());
+    }
+
+    @Test
+    void extensionLookupIgnoresCase() {
+        assertEquals("image/jpeg", MimeTypes.defaults().forExtension("JPG").name());
+    }
+
+    @Test
+    void unknownExtensionDefaultsToHtml() {
+        var mimeTypes = MimeTypes.defaults();
+
+        assertEquals(MimeTypes.DEFAULT_TYPE, mimeTypes.forExtension("nope").name());
+        assertEquals(MimeTypes.DEFAULT_TYPE, mimeTypes.forExtension("/things").name());
+    }
+
+    @Test
+    void typesShareEncodedHeaderBytes() {
+        var mimeTypes = MimeTypes.defaults();
+
+        assertSame(mimeTypes.forExtension("jpg"), mimeTypes.forExtension("jpeg"));
+        assertSame(mimeTypes.forExtension("jpg").headerBytes(), MimeTypes.encodeHeader("Content-Type: image/jpeg\r\n"));
+    }
+
+    @Test
+    void encodeHeaderFallsBackForUnknownHeaders() {
+        assertArrayEquals("Content-Type: a/b\r\n".getBytes(), MimeTypes.encodeHeader("Content-Type: a/b\r\n"));
+    }
+
+    @Test
+    void loadOverridesAndExtendsBuiltInTypes() throws IOException {
+        var file = directory.resolve("mime.types");
+        Files.writeString(file, """
+                # overrides
+                text/plain        md markdown
+                application/x-foo .foo   # leading dots are allowed
+
+                """);
+        var mimeTypes = MimeTypes.load(file);
+
+        assertEquals("text/plain", mimeTypes.forExtension("md").name());
+        assertEquals("text/plain", mimeTypes.forExtension("markdown").name());
+        assertEquals("application/x-foo", mimeTypes.forExtension("foo").name());
+        assertEquals("image/png", mimeTypes.forExtension("png").name());
+    }
+
+    @Test
+    void loadRejectsMalformedLines() throws IOException {
+        var file = directory.resolve("mime.types");
+        Files.writeString(file, "text/plain\n");
+
+        assertThrows(IOException.class, () -> MimeTypes.load(file));
+    }
+}
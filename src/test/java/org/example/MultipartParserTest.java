@@ -0,0 +1,157 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultipartParserTest {
+    private static final String BODY = """
+            preamble is ignored\r
+            --XyZ\r
+            Content-Disposition: form-data; name="title"\r
+            \r
+            My upload\r
+            --XyZ\r
+            Content-Disposition: form-data; name="file"; filename="notes.txt"\r
+            Content-Type: text/plain\r
+            \r
+            line one\r
+            --XyY is a near miss -XyZ\r
+            line three\r
+            --XyZ--\r
+            epilogue is ignored""";
+
+    private static String read(MultipartParser.Part part) throws IOException {
+        var out = new ByteArrayOutputStream();
+        part.transferTo(out);
+        return out.toString();
+    }
+
+    private static InputStream trickle(byte[] bytes, int chunkSize) {
+        return new ByteArrayInputStream(bytes) {
+            @Override
+            public synchronized int read(byte[] buffer, int offset, int length) {
+                return super.read(buffer, offset, Math.min(length, chunkSize));
+            }
+        };
+    }
+
+    @Test
+    void boundaryOfReadsPlainAndQuotedBoundaries() {
+        assertEquals("XyZ", MultipartParser.boundaryOf("multipart/form-data; boundary=XyZ"));
+        assertEquals("a b", MultipartParser.boundaryOf("Multipart/Form-Data; charset=utf-8; boundary=\"a b\""));
+        assertNull(MultipartParser.boundaryOf("application/x-www-form-urlencoded"));
+        assertNull(MultipartParser.boundaryOf("multipart/form-data"));
+        assertNull(MultipartParser.boundaryOf(null));
+    }
+
+    @Test
+    void parsesFieldsAndFiles() throws IOException {
+        var parser = new MultipartParser(new ByteArrayInputStream(BODY.getBytes()), "XyZ");
+
+        var title = parser.nextPart();
+        assertEquals("title", title.getName());
+        assertNull(title.getFileName());
+        assertEquals("text/plain", title.getContentType());
+        assertEquals("My upload", read(title));
+
+        var file = parser.nextPart();
+        assertEquals("file", file.getName());
+        assertEquals("notes.txt", file.getFileName());
+        assertEquals("form-data; name=\"file\"; filename=\"notes.txt\"", file.getHeader("content-disposition"));
+        assertEquals("line one\r\n--XyY is a near miss -XyZ\r\nline three", read(file));
+
+        assertNull(parser.nextPart());
+        assertNull(parser.nextPart());
+    }
+
+    @Test
+    void findsBoundariesAcrossBufferEdges() throws IOException {
+        for (var chunkSize : new int[]{1, 2, 3, 7, 64}) {
+            var parser = new MultipartParser(trickle(BODY.getBytes(), chunkSize), "XyZ");
+            assertEquals("My upload", read(parser.nextPart()));
+            assertEquals("line one\r\n--XyY is a near miss -XyZ\r\nline three", read(parser.nextPart()));
+            assertNull(parser.nextPart());
+        }
+    }
+
+    @Test
+    void skipsPartsThatAreNotRead() throws IOException {
+        var parser = new MultipartParser(new ByteArrayInputStream(BODY.getBytes()), "XyZ");
+        parser.nextPart();
+        assertEquals("notes.txt", parser.nextPart().getFileName());
+    }
+
+    @Test
+    void streamsLargePartsWithoutBufferingThem() throws IOException {
+        var partSize = 32L * 1024 * 1024;
+        var head = "--big\r\nContent-Disposition: form-data; name=\"file\"; filename=\"big.bin\"\r\n\r\n".getBytes();
+        var tail = "\r\n--big--\r\n".getBytes();
+        var body = new InputStream() {
+            private long position;
+
+            @Override
+            public int read() {
+                var index = position++;
+                if (index < head.length)
+                    return head[(int) index];
+                index -= head.length;
+                if (index < partSize)
+                    return (int) (index % 251);
+                index -= partSize;
+                return index < tail.length ? tail[(int) index] : -1;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) {
+                int count = 0;
+                int b;
+                while (count < length && (b = read()) != -1)
+                    buffer[offset + count++] = (byte) b;
+                return count == 0 ? -1 : count;
+            }
+        };
+
+        var parser = new MultipartParser(body, "big");
+        var part = parser.nextPart();
+        var sink = new OutputStream() {
+            private long count;
+
+            @Override
+            public void write(int b) {
+                count++;
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) {
+                count += length;
+            }
+        };
+
+        assertEquals(partSize, part.transferTo(sink));
+        assertEquals(partSize, sink.count);
+        assertNull(parser.nextPart());
+    }
+
+    @Test
+    void rejectsTruncatedBodies() throws IOException {
+        var truncated = BODY.substring(0, BODY.indexOf("line three"));
+        var parser = new MultipartParser(new ByteArrayInputStream(truncated.getBytes()), "XyZ");
+        parser.nextPart();
+        var file = parser.nextPart();
+        assertThrows(IOException.class, () -> file.transferTo(OutputStream.nullOutputStream()));
+    }
+
+    @Test
+    void rejectsMalformedPartHeaders() {
+        var body = "--XyZ\r\nno colon here\r\n\r\ndata\r\n--XyZ--\r\n";
+        var parser = new MultipartParser(new ByteArrayInputStream(body.getBytes()), "XyZ");
+        assertThrows(IOException.class, parser::nextPart);
+    }
+}
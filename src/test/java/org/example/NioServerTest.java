@@ -0,0 +1,307 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NioServerTest {
+    private NioServer nioServer;
+
+    @BeforeEach
+    void setup() throws IOException {
+        nioServer = new NioServer(new Server(), ConnectionExecutor.virtualThreads(), 2, 5000);
+    }
+
+    @AfterEach
+    void cleanUp() throws IOException {
+        if (nioServer.getSocket() != null)
+            nioServer.stop();
+    }
+
+    private int frameLength(String data) throws IOException {
+        var bytes = data.getBytes();
+        return nioServer.frameLength(bytes, bytes.length);
+    }
+
+    @Test
+    void frameLengthIsIncompleteWithoutBlankLine() throws IOException {
+        assertEquals(-1, frameLength("GET / HTTP/1.1\r\nHost: x\r\n"));
+    }
+
+    @Test
+    void frameLengthEndsAtBlankLineWithoutBody() throws IOException {
+        var request = "GET / HTTP/1.1\r\n\r\n";
+        assertEquals(request.length(), frameLength(request + "GET /hello HTTP/1.1\r\n\r\n"));
+    }
+
+    @Test
+    void frameLengthIncludesContentLengthBody() throws IOException {
+        var request = "POST /guess HTTP/1.1\r\nContent-Length: 8\r\n\r\nguess=42";
+        assertEquals(request.length(), frameLength(request));
+        assertEquals(-1, frameLength(request.substring(0, request.length() - 1)));
+    }
+
+    @Test
+    void frameLengthIncludesChunkedBody() throws IOException {
+        var request = "POST /form HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n5\r\nhello\r\n0\r\n\r\n";
+        assertEquals(request.length(), frameLength(request));
+        assertEquals(-1, frameLength(request.substring(0, request.length() - 2)));
+    }
+
+    @Test
+    void servesManyRequestsOnOneConnection() throws IOException {
+        nioServer.start(0);
+        try (var client = new Socket("localhost", nioServer.getSocket().getLocalPort())) {
+            var out = client.getOutputStream();
+            out.write("GET /hello HTTP/1.1\r\n\r\n".getBytes());
+            out.write("GET /goodbye HTTP/1.1\r\nConnection: close\r\n\r\n".getBytes());
+            out.flush();
+
+            var response = new String(client.getInputStream().readAllBytes());
+            assertTrue(response.startsWith("HTTP/1.1 200 OK"));
+            assertTrue(response.contains("<h1>Hello!</h1>"));
+            assertTrue(response.endsWith("<h1>Goodbye</h1>\n"));
+        }
+    }
+
+    @Test
+    void multipleAcceptorsServeRequestsOnOnePort() throws IOException {
+        nioServer.start(0, 50, 2);
+        assertEquals(2, nioServer.getAcceptorCount());
+        for (int i = 0; i < 8; i++) {
+            try (var client = new Socket("localhost", nioServer.getSocket().getLocalPort())) {
+                client.getOutputStream().write("GET /hello HTTP/1.1\r\nConnection: close\r\n\r\n".getBytes());
+                assertTrue(new String(client.getInputStream().readAllBytes()).contains("<h1>Hello!</h1>"));
+            }
+        }
+    }
+
+    @Test
+    void streamsUploadsLargerThanTheBodyLimit() throws IOException {
+        nioServer.start(0);
+        var content = new byte[4 * Server.MAX_BODY_SIZE];
+        Arrays.fill(content, (byte) 'u');
+        var body = ("--b0undary\r\nContent-Disposition: form-data; name=\"file\"; filename=\"big.bin\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n" + new String(content) + "\r\n--b0undary--\r\n").getBytes();
+        var head = "POST /form HTTP/1.1\r\nContent-Type: multipart/form-data; boundary=b0undary\r\nContent-Length: %d\r\n\r\n"
+                .formatted(body.length);
+
+        try (var client = new Socket("localhost", nioServer.getSocket().getLocalPort())) {
+            var out = client.getOutputStream();
+            out.write(head.getBytes());
+            out.write(body);
+            out.write("GET /hello HTTP/1.1\r\nConnection: close\r\n\r\n".getBytes());
+            out.flush();
+
+            var response = new String(client.getInputStream().readAllBytes());
+            assertTrue(response.contains("<li>file size: %d</li>".formatted(content.length)));
+            assertTrue(response.endsWith("<h1>Hello!</h1>\n"));
+        }
+    }
+
+    @Test
+    void answersPayloadTooLargeForOversizedBodies() throws IOException {
+        nioServer.start(0);
+        try (var client = new Socket("localhost", nioServer.getSocket().getLocalPort())) {
+            var head = "POST /guess HTTP/1.1\r\nContent-Length: %d\r\n\r\n".formatted(Server.MAX_BODY_SIZE + 1);
+            client.getOutputStream().write(head.getBytes());
+
+            var response = new String(client.getInputStream().readAllBytes());
+            assertTrue(response.startsWith("HTTP/1.1 413 Payload Too Large\r\n"));
+            assertTrue(response.contains("Connection: close\r\n"));
+        }
+    }
+
+    @Test
+    void acceptsBodiesAtTheLimitWithAPipelinedRequestBehindThem() throws IOException {
+        nioServer.start(0);
+        try (var client = new Socket("localhost", nioServer.getSocket().getLocalPort())) {
+            var out = new ByteArrayOutputStream();
+            out.writeBytes("POST /hello HTTP/1.1\r\nContent-Length: %d\r\n\r\n".formatted(Server.MAX_BODY_SIZE).getBytes());
+            out.writeBytes(new byte[Server.MAX_BODY_SIZE]);
+            out.writeBytes("GET /goodbye HTTP/1.1\r\nConnection: close\r\n\r\n".getBytes());
+            client.getOutputStream().write(out.toByteArray());
+
+            var response = new String(client.getInputStream().readAllBytes());
+            assertFalse(response.contains("413 Payload Too Large"));
+            assertTrue(response.contains("<h1>Goodbye</h1>"));
+        }
+    }
+
+    @Test
+    void answersPayloadTooLargeForOversizedChunkedBodies() throws IOException {
+        nioServer.start(0);
+        try (var client = new Socket("localhost", nioServer.getSocket().getLocalPort())) {
+            var chunkSize = Server.MAX_BODY_SIZE / 2 + 1;
+            var head = "POST /guess HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n%x\r\n".formatted(chunkSize);
+            client.getOutputStream().write(head.getBytes());
+            client.getOutputStream().write(new byte[chunkSize]);
+            client.getOutputStream().write("\r\n%x\r\n".formatted(chunkSize).getBytes());
+
+            var response = new String(client.getInputStream().readAllBytes());
+            assertTrue(response.startsWith("HTTP/1.1 413 Payload Too Large\r\n"));
+            assertTrue(response.contains("Connection: close\r\n"));
+        }
+    }
+
+    @Test
+    void writesLargeResponsesCompletely() throws IOException {
+        nioServer.start(0);
+        try (var client = new Socket("localhost", nioServer.getSocket().getLocalPort())) {
+            client.getOutputStream().write("GET /things/miata.gif HTTP/1.1\r\nConnection: close\r\n\r\n".getBytes());
+
+            var response = client.getInputStream().readAllBytes();
+            assertTrue(new String(response, 0, 100).contains("Content-Length: 1690118"));
+            assertTrue(response.length > 1690118);
+        }
+    }
+
+    @Test
+    void delayedPingsDoNotHoldHandlerThreads() throws IOException {
+        nioServer = new NioServer(new Server(), ConnectionExecutor.platformPool(2), 1, 5000);
+        nioServer.start(0);
+        var clients = new ArrayList<Socket>();
+        try {
+            var start = System.currentTimeMillis();
+            for (int i = 0; i < 200; i++) {
+                var client = new Socket("localhost", nioServer.getSocket().getLocalPort());
+                clients.add(client);
+                client.getOutputStream().write("GET /ping/1 HTTP/1.1\r\nConnection: close\r\n\r\n".getBytes());
+            }
+            for (var client : clients)
+                assertTrue(new String(client.getInputStream().readAllBytes()).startsWith("HTTP/1.1 200 OK"));
+
+            assertTrue(System.currentTimeMillis() - start < 10_000);
+        } finally {
+            for (var client : clients)
+                client.close();
+        }
+    }
+
+    @Test
+    void shedsRequestsBeyondTheConcurrencyLimit() throws IOException {
+        var server = new Server();
+        server.parseArgs(new String[]{"-c", "1"});
+        nioServer = new NioServer(server, ConnectionExecutor.virtualThreads(), 1, 5000);
+        nioServer.start(0, 16);
+        try (var slow = new Socket("localhost", nioServer.getSocket().getLocalPort());
+             var shed = new Socket("localhost", nioServer.getSocket().getLocalPort())) {
+            slow.getOutputStream().write("GET /ping/1 HTTP/1.1\r\nConnection: close\r\n\r\n".getBytes());
+            while (server.getConcurrencyLimiter().getInFlight() == 0)
+                Thread.onSpinWait();
+            shed.getOutputStream().write("GET /hello HTTP/1.1\r\n\r\n".getBytes());
+
+            var rejected = new String(shed.getInputStream().readAllBytes());
+            assertTrue(rejected.startsWith("HTTP/1.1 503 Service Unavailable"));
+            assertTrue(rejected.contains("Retry-After: 1\r\n"));
+            assertTrue(new String(slow.getInputStream().readAllBytes()).startsWith("HTTP/1.1 200 OK"));
+        }
+        assertEquals(1, server.getConcurrencyLimiter().getRejectedCount());
+        var deadline = System.currentTimeMillis() + 1000;
+        while (server.getConcurrencyLimiter().getInFlight() > 0 && System.currentTimeMillis() < deadline)
+            Thread.onSpinWait();
+        assertEquals(0, server.getConcurrencyLimiter().getInFlight());
+    }
+
+    @Test
+    void drainFinishesInFlightRequestsWithConnectionClose() throws IOException, InterruptedException {
+        var server = new Server();
+        server.parseArgs(new String[]{"-p", "0", "-m", "nio", "-l", "1"});
+        server.handleNIO();
+        var port = server.getSocket().getLocalPort();
+        try (var busy = new Socket("localhost", port); var idle = new Socket("localhost", port)) {
+            idle.getOutputStream().write("GET /hello HTTP/1.1\r\n\r\n".getBytes());
+            var head = new byte[15];
+            idle.getInputStream().readNBytes(head, 0, head.length);
+            while (server.getConcurrencyLimiter().getInFlight() > 0)
+                Thread.onSpinWait();
+            busy.getOutputStream().write("GET /ping/1 HTTP/1.1\r\n\r\n".getBytes());
+            while (server.getConcurrencyLimiter().getInFlight() == 0)
+                Thread.onSpinWait();
+
+            var stats = server.stopGracefully(5000);
+
+            var response = new String(busy.getInputStream().readAllBytes());
+            assertTrue(response.startsWith("HTTP/1.1 200 OK"));
+            assertTrue(response.contains("Connection: close\r\n"));
+            idle.getInputStream().readAllBytes();
+            assertEquals(-1, idle.getInputStream().read());
+            assertTrue(stats.isComplete());
+            assertEquals(1, stats.requestsAtStart());
+        }
+    }
+
+    private Server recordingServer(List<String> events) {
+        return new Server() {
+            @Override
+            public Response handleRequest(Request request) throws IOException, InterruptedException {
+                var path = request.getTarget();
+                events.add("start " + path);
+                if (Objects.equals("/slow", path))
+                    Thread.sleep(300);
+                events.add("end " + path);
+                return Response.of("200 OK", "Content-Type: text/plain\r\n", path.getBytes());
+            }
+        };
+    }
+
+    @Test
+    void headResponseOmitsTheBodyOnAKeepAliveConnection() throws IOException {
+        nioServer.start(0);
+        try (var client = new Socket("localhost", nioServer.getSocket().getLocalPort())) {
+            client.getOutputStream().write("HEAD /hello HTTP/1.1\r\n\r\nGET /goodbye HTTP/1.1\r\nConnection: close\r\n\r\n".getBytes());
+            var response = new String(client.getInputStream().readAllBytes());
+            var headEnd = response.indexOf("\r\n\r\n") + 4;
+
+            assertTrue(response.startsWith("HTTP/1.1 200 OK\r\n"));
+            assertTrue(response.substring(0, headEnd).contains("Content-Length: 16\r\n"));
+            assertTrue(response.startsWith("HTTP/1.1 200 OK\r\n", headEnd));
+            assertFalse(response.contains("Hello!"));
+            assertTrue(response.endsWith("<h1>Goodbye</h1>\n"));
+        }
+    }
+
+    @Test
+    void pipelinedResponsesKeepRequestOrder() throws IOException {
+        var events = Collections.synchronizedList(new ArrayList<String>());
+        nioServer = new NioServer(recordingServer(events), ConnectionExecutor.virtualThreads(), 1, 5000);
+        nioServer.start(0);
+        try (var client = new Socket("localhost", nioServer.getSocket().getLocalPort())) {
+            client.getOutputStream().write(("GET /slow HTTP/1.1\r\n\r\n" +
+                    "GET /fast HTTP/1.1\r\n\r\n" +
+                    "GET /last HTTP/1.1\r\nConnection: close\r\n\r\n").getBytes());
+
+            var response = new String(client.getInputStream().readAllBytes());
+            assertTrue(response.indexOf("/slow") < response.indexOf("/fast"));
+            assertTrue(response.indexOf("/fast") < response.indexOf("/last"));
+            assertTrue(events.indexOf("end /fast") < events.indexOf("end /slow"));
+        }
+    }
+
+    @Test
+    void pipelinedUnsafeRequestWaitsForEarlierRequests() throws IOException {
+        var events = Collections.synchronizedList(new ArrayList<String>());
+        nioServer = new NioServer(recordingServer(events), ConnectionExecutor.virtualThreads(), 1, 5000);
+        nioServer.start(0);
+        try (var client = new Socket("localhost", nioServer.getSocket().getLocalPort())) {
+            client.getOutputStream().write(("GET /slow HTTP/1.1\r\n\r\n" +
+                    "POST /guess HTTP/1.1\r\nContent-Length: 8\r\n\r\nguess=42" +
+                    "GET /fast HTTP/1.1\r\nConnection: close\r\n\r\n").getBytes());
+
+            var response = new String(client.getInputStream().readAllBytes());
+            assertEquals(3, response.split("HTTP/1.1 200 OK").length - 1);
+            assertEquals(List.of("start /slow", "end /slow", "start /guess", "end /guess", "start /fast", "end /fast"), events);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestParserTest {
+    private static final String REQUEST = """
+            GET /things/miata.gif?size=large HTTP/1.1\r
+            Host: localhost:8080\r
+            User-Agent: Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7)\r
+            Accept: text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8\r
+            Accept-Encoding: gzip, deflate\r
+            Accept-Language: en-US,en;q=0.5\r
+            Connection: keep-alive\r
+            \r
+            """;
+
+    private RequestParser parse(String request) throws IOException {
+        var parser = new RequestParser();
+        var bytes = request.getBytes();
+        parser.parse(bytes, 0, bytes.length);
+        return parser;
+    }
+
+    @Test
+    void parsesRequestLine() throws IOException {
+        var parser = parse(REQUEST);
+
+        assertTrue(parser.isComplete());
+        assertEquals("GET", parser.getMethod());
+        assertEquals("/things/miata.gif?size=large", parser.getTarget());
+        assertEquals("HTTP/1.1", parser.getVersion());
+        assertTrue(parser.isMethod("GET"));
+        assertFalse(parser.isMethod("GE"));
+        assertTrue(parser.isVersion("HTTP/1.1"));
+    }
+
+    @Test
+    void headEndPointsPastBlankLine() throws IOException {
+        var parser = parse(REQUEST + "body");
+        assertEquals(REQUEST.length(), parser.getHeadEnd());
+    }
+
+    @Test
+    void looksUpHeadersIgnoringCase() throws IOException {
+        var parser = parse(REQUEST);
+
+        assertEquals(6, parser.getHeaderCount());
+        assertEquals("Host", parser.getHeaderName(0));
+        assertEquals("localhost:8080", parser.getHeaderValue("host"));
+        assertEquals("gzip, deflate", parser.getHeaderValue("ACCEPT-ENCODING"));
+        assertNull(parser.getHeaderValue("Cookie"));
+        assertTrue(parser.headerEquals("Connection", "Keep-Alive"));
+        assertTrue(parser.headerContains("Accept-Encoding", "DEFLATE"));
+    }
+
+    @Test
+    void trimsOptionalWhitespaceAroundValues() throws IOException {
+        var parser = parse("GET / HTTP/1.1\r\nX-Padded: \t value \t\r\n\r\n");
+        assertEquals("value", parser.getHeaderValue("X-Padded"));
+    }
+
+    @Test
+    void skipsLeadingBlankLinesAndAcceptsBareLineFeeds() throws IOException {
+        var parser = parse("\r\n\nGET /hello HTTP/1.1\nHost: x\n\n");
+
+        assertTrue(parser.isComplete());
+        assertEquals("/hello", parser.getTarget());
+        assertEquals("x", parser.getHeaderValue("Host"));
+    }
+
+    @Test
+    void resumesAcrossPartialReads() throws IOException {
+        var bytes = REQUEST.getBytes();
+        var parser = new RequestParser();
+
+        for (int limit = 1; limit < bytes.length; limit++)
+            assertFalse(parser.parse(bytes, 0, limit));
+        assertTrue(parser.parse(bytes, 0, bytes.length));
+        assertEquals("localhost:8080", parser.getHeaderValue("Host"));
+    }
+
+    @Test
+    void resetAllowsReuseForNextRequest() throws IOException {
+        var parser = parse(REQUEST);
+        parser.reset();
+        var bytes = "POST /form HTTP/1.1\r\nContent-Length: 12\r\n\r\n".getBytes();
+
+        assertTrue(parser.parse(bytes, 0, bytes.length));
+        assertTrue(parser.isMethod("POST"));
+        assertEquals(12, parser.getContentLength());
+        assertEquals(1, parser.getHeaderCount());
+    }
+
+    @Test
+    void contentLengthIsMinusOneWhenAbsent() throws IOException {
+        assertEquals(-1, parse(REQUEST).getContentLength());
+    }
+
+    @Test
+    void rejectsInvalidContentLength() throws IOException {
+        var parser = parse("POST / HTTP/1.1\r\nContent-Length: 12a\r\n\r\n");
+        assertThrows(IOException.class, parser::getContentLength);
+    }
+
+    @Test
+    void rejectsMalformedLines() {
+        assertThrows(IOException.class, () -> parse("GET\r\n\r\n"));
+        assertThrows(IOException.class, () -> parse("GET / HTTP/1.1\r\nNoColon\r\n\r\n"));
+        assertThrows(IOException.class, () -> parse("GET / HTTP/1.1\r\nBad Name: x\r\n\r\n"));
+        assertThrows(IOException.class, () -> parse("GET / HTTP/1.1\r\nA: b\r\n folded\r\n\r\n"));
+    }
+
+    @Test
+    void enforcesLineLengthLimit() {
+        var request = "GET /" + "a".repeat(RequestParser.MAX_LINE_LENGTH) + " HTTP/1.1\r\n\r\n";
+        assertThrows(IOException.class, () -> parse(request));
+    }
+
+    @Test
+    void enforcesHeaderCountLimit() {
+        var request = "GET / HTTP/1.1\r\n" + "X-Header: value\r\n".repeat(RequestParser.MAX_HEADERS + 1) + "\r\n";
+        assertThrows(IOException.class, () -> parse(request));
+    }
+
+    @Test
+    void enforcesHeadSizeLimitBeforeHeadIsComplete() {
+        var request = "GET / HTTP/1.1\r\n" + ("X-Header: " + "v".repeat(1000) + "\r\n").repeat(70);
+        assertThrows(IOException.class, () -> parse(request));
+    }
+}
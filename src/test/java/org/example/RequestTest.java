@@ -0,0 +1,56 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestTest {
+    @Test
+    void parseReadsStartLineHeadersAndBody() {
+        var request = Request.parse("POST /guess?x=1 HTTP/1.1\r\nCookie: a=1\r\nContent-Length: 8\r\n\r\nguess=42");
+
+        assertEquals("POST", request.getMethod());
+        assertTrue(request.isMethod("POST"));
+        assertEquals("/guess?x=1", request.getTarget());
+        assertEquals("a=1", request.getHeaderValue("cookie"));
+        assertEquals("guess=42", request.getBodyText());
+    }
+
+    @Test
+    void parseAcceptsHeadWithoutBlankLine() {
+        var request = Request.parse("GET /hello HTTP/1.1");
+
+        assertEquals("GET", request.getMethod());
+        assertEquals("/hello", request.getTarget());
+        assertEquals(0, request.getBody().length);
+    }
+
+    @Test
+    void parseRejectsEmptyRequest() {
+        assertThrows(IllegalArgumentException.class, () -> Request.parse(""));
+    }
+
+    @Test
+    void keepAliveFollowsVersionAndConnectionHeader() {
+        assertTrue(Request.parse("GET / HTTP/1.1\r\n\r\n").isKeepAlive());
+        assertFalse(Request.parse("GET / HTTP/1.1\r\nConnection: Close\r\n\r\n").isKeepAlive());
+        assertFalse(Request.parse("GET / HTTP/1.0\r\n\r\n").isKeepAlive());
+        assertTrue(Request.parse("GET / HTTP/1.0\r\nConnection: keep-alive\r\n\r\n").isKeepAlive());
+    }
+
+    @Test
+    void reboundHeadSurvivesReuseOfTheReadBuffer() throws IOException {
+        var input = "GET /hello HTTP/1.1\r\nHost: x\r\n\r\n".getBytes();
+        var parser = new RequestParser();
+        parser.parse(input, 0, input.length);
+        parser.rebind(Arrays.copyOf(input, input.length));
+        Arrays.fill(input, (byte) 'z');
+
+        var request = new Request(parser);
+        assertEquals("/hello", request.getTarget());
+        assertEquals("x", request.getHeaderValue("Host"));
+    }
+}
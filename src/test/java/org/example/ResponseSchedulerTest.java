@@ -0,0 +1,77 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseSchedulerTest {
+    private final ResponseScheduler scheduler = new ResponseScheduler(1);
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void completesAfterDelay() {
+        var start = System.currentTimeMillis();
+        var result = scheduler.schedule(100, () -> "done").join();
+
+        assertEquals("done", result);
+        assertTrue(System.currentTimeMillis() - start >= 100);
+    }
+
+    @Test
+    void thousandsOfPendingTasksShareOneThread() {
+        var futures = new ArrayList<CompletableFuture<Integer>>();
+        for (int i = 0; i < 5000; i++) {
+            var value = i;
+            futures.add(scheduler.schedule(200, () -> value));
+        }
+
+        assertEquals(5000, scheduler.getPendingCount());
+        for (int i = 0; i < futures.size(); i++)
+            assertEquals(i, futures.get(i).join());
+        assertEquals(0, scheduler.getPendingCount());
+        assertEquals(1, scheduler.getThreadCount());
+    }
+
+    @Test
+    void failedTaskCompletesExceptionally() {
+        var future = scheduler.schedule(0, () -> {
+            throw new IOException("boom");
+        });
+
+        var error = assertThrows(ExecutionException.class, future::get);
+        assertInstanceOf(IOException.class, error.getCause());
+    }
+
+    @Test
+    void cancellingReleasesPendingTask() {
+        var future = scheduler.schedule(60_000, () -> "never");
+        future.cancel(false);
+
+        assertEquals(0, scheduler.getPendingCount());
+    }
+
+    @Test
+    void completeOnTimeoutUsesFallbackWhenNothingArrives() {
+        var poll = scheduler.completeOnTimeout(new CompletableFuture<String>(), 50, () -> "timeout");
+        assertEquals("timeout", poll.join());
+    }
+
+    @Test
+    void completeOnTimeoutCancelsTimerWhenResultArrives() {
+        var poll = scheduler.completeOnTimeout(new CompletableFuture<String>(), 60_000, () -> "timeout");
+        poll.complete("event");
+
+        assertEquals("event", poll.join());
+        assertEquals(0, scheduler.getPendingCount());
+    }
+}
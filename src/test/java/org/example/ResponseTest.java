@@ -0,0 +1,151 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseTest {
+    private final Path gif = Path.of("./things/miata.gif");
+
+    @Test
+    void headHasStatusContentTypeAndLength() {
+        var response = Response.of("200 OK", "Content-Type: text/html\r\n", "<h1>Hi</h1>".getBytes());
+        var expected = """
+                HTTP/1.1 200 OK\r
+                Content-Type: text/html\r
+                Content-Length: 11\r
+                Server: httpServer1.1\r
+                \r
+                """;
+        assertEquals(expected, new String(response.getHead()));
+    }
+
+    @Test
+    void fileResponseTakesLengthFromFile() throws IOException {
+        var response = Response.ofFile("200 OK", "Content-Type: image/gif\r\n", gif);
+        assertEquals(Files.size(gif), response.getContentLength());
+        assertInstanceOf(Response.FileRegion.class, response.getBody());
+    }
+
+    @Test
+    void writeToChannelTransfersWholeFile() throws IOException {
+        var response = Response.ofFile("200 OK", "Content-Type: image/gif\r\n", gif);
+        var out = new ByteArrayOutputStream();
+        response.writeTo(Channels.newChannel(out));
+
+        var head = response.getHead();
+        var written = out.toByteArray();
+        var body = new byte[written.length - head.length];
+        System.arraycopy(written, head.length, body, 0, body.length);
+        assertArrayEquals(Files.readAllBytes(gif), body);
+    }
+
+    @Test
+    void withoutBodyKeepsHeadersAndContentLength() throws IOException {
+        var response = Response.of("200 OK", "Content-Type: text/html\r\n", "<h1>Hi</h1>".getBytes())
+                .header("ETag", "\"1\"")
+                .withoutBody();
+        var expected = """
+                HTTP/1.1 200 OK\r
+                Content-Type: text/html\r
+                Content-Length: 11\r
+                ETag: "1"\r
+                Server: httpServer1.1\r
+                \r
+                """;
+        assertEquals(expected, new String(response.toByteArray()));
+    }
+
+    @Test
+    void withoutBodyOfGeneratedResponseSendsNoChunks() throws IOException {
+        var response = Response.ofGenerator("200 OK", "Content-Type: text/plain\r\n", out -> out.write("hi".getBytes()))
+                .withoutBody();
+        var written = new String(response.toByteArray());
+
+        assertTrue(written.contains("Transfer-Encoding: chunked\r\n"));
+        assertTrue(written.endsWith("\r\n\r\n"));
+        assertFalse(written.contains("hi"));
+    }
+
+    @Test
+    void writeToSocketChannelSendsHeadOfEmptyBody() throws IOException {
+        var response = Response.of("204 No Content", "", new byte[0]);
+        try (var listener = ServerSocketChannel.open().bind(new InetSocketAddress("localhost", 0));
+             var client = SocketChannel.open(listener.getLocalAddress());
+             var accepted = listener.accept()) {
+            assertEquals(response.getHead().length, response.writeTo(accepted));
+            accepted.close();
+
+            var received = Channels.newInputStream(client).readAllBytes();
+            assertArrayEquals(response.getHead(), received);
+        }
+    }
+
+    @Test
+    void toByteArrayMatchesWriteToChannel() throws IOException {
+        var response = Response.ofFile("200 OK", "Content-Type: image/gif\r\n", gif);
+        var out = new ByteArrayOutputStream();
+        response.writeTo(Channels.newChannel(out));
+        assertArrayEquals(out.toByteArray(), response.toByteArray());
+    }
+
+    @Test
+    void smallGeneratedBodyGetsContentLength() throws IOException {
+        var response = Response.ofGenerator("200 OK", "Content-Type: text/plain\r\n", out -> out.write("hello".getBytes()));
+        var expected = """
+                HTTP/1.1 200 OK\r
+                Content-Type: text/plain\r
+                Content-Length: 5\r
+                Server: httpServer1.1\r
+                \r
+                hello""";
+        assertEquals(expected, new String(response.toByteArray()));
+    }
+
+    @Test
+    void largeGeneratedBodyIsChunked() throws IOException {
+        var line = "0123456789abcdef".repeat(64);
+        var response = Response.ofGenerator("200 OK", "Content-Type: text/plain\r\n", out -> {
+            for (int i = 0; i < 20; i++)
+                out.write(line.getBytes());
+        });
+        var result = new String(response.toByteArray());
+
+        assertTrue(result.contains("Transfer-Encoding: chunked\r\n"));
+        assertFalse(result.contains("Content-Length"));
+        assertTrue(result.contains("\r\n\r\n2000\r\n"));
+        assertTrue(result.endsWith("\r\n1000\r\n" + line.repeat(4) + "\r\n0\r\n\r\n"));
+    }
+
+    @Test
+    void streamWithKnownLengthGetsContentLength() throws IOException {
+        var in = new ByteArrayInputStream("streamed body".getBytes());
+        var response = Response.ofStream("200 OK", "Content-Type: text/plain\r\n", in, 13);
+        var result = new String(response.toByteArray());
+        assertTrue(result.contains("Content-Length: 13\r\n"));
+        assertTrue(result.endsWith("\r\n\r\nstreamed body"));
+    }
+
+    @Test
+    void streamWithUnknownLengthIsBuffered() throws IOException {
+        var in = new ByteArrayInputStream("streamed body".getBytes());
+        var response = Response.ofStream("200 OK", "Content-Type: text/plain\r\n", in, -1);
+        assertTrue(new String(response.toByteArray()).contains("Content-Length: 13\r\n"));
+    }
+
+    @Test
+    void headerIsWrittenBeforeServer() {
+        var response = Response.of("200 OK", "Content-Type: text/html\r\n", new byte[0]).header("ETag", "\"abc\"");
+        assertTrue(new String(response.getHead()).contains("Content-Length: 0\r\nETag: \"abc\"\r\nServer: httpServer1.1\r\n"));
+    }
+}
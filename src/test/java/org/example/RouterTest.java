@@ -0,0 +1,94 @@
+package org.example;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouterTest {
+    private Router router;
+
+    private static Handler named(String name) {
+        return (request, parameters) -> Response.of("200 OK", "Content-Type: text/plain\r\n", name.getBytes());
+    }
+
+    private static String nameOf(Router.Match match) throws Exception {
+        return new String(((Response.Bytes) match.handler().handle(null, match.parameters()).getBody()).content());
+    }
+
+    @BeforeEach
+    void setup() {
+        router = new Router();
+        router.register(Router.ANY_METHOD, "/ping", named("ping"));
+        router.register(Router.ANY_METHOD, "/ping/{seconds}", named("pingSeconds"));
+        router.register("POST", "/guess", named("guessPost"));
+        router.register(Router.ANY_METHOD, "/guess", named("guessAny"));
+        router.register("GET", "/users/{id}/posts/{postId}", named("post"));
+        router.register("GET", "/users/me/posts/latest", named("latest"));
+        router.register("GET", "/files/{*path}", named("files"));
+    }
+
+    @Test
+    void matchesStaticRoutes() throws Exception {
+        assertEquals("ping", nameOf(router.match("GET", "/ping")));
+        assertEquals("ping", nameOf(router.match("POST", "/ping/")));
+    }
+
+    @Test
+    void capturesPathParameters() throws Exception {
+        var match = router.match("GET", "/ping/3");
+        assertEquals("pingSeconds", nameOf(match));
+        assertEquals(Map.of("seconds", "3"), match.parameters());
+
+        var post = router.match("GET", "/users/42/posts/7");
+        assertEquals(Map.of("id", "42", "postId", "7"), post.parameters());
+    }
+
+    @Test
+    void prefersStaticSegmentsAndBacktracksToParameters() throws Exception {
+        assertEquals("latest", nameOf(router.match("GET", "/users/me/posts/latest")));
+
+        var match = router.match("GET", "/users/me/posts/8");
+        assertEquals("post", nameOf(match));
+        assertEquals(Map.of("id", "me", "postId", "8"), match.parameters());
+    }
+
+    @Test
+    void matchReportsRegisteredPattern() {
+        assertEquals("/users/{id}/posts/{postId}", router.match("GET", "/users/42/posts/7").pattern());
+        assertEquals("/files/{*path}", router.match("GET", "/files/a/b").pattern());
+    }
+
+    @Test
+    void catchAllCapturesRemainingSegments() {
+        assertEquals(Map.of("path", "a/b/c.txt"), router.match("GET", "/files/a/b/c.txt").parameters());
+        assertEquals(Map.of("path", ""), router.match("GET", "/files").parameters());
+    }
+
+    @Test
+    void prefersExactMethodOverAnyMethod() throws Exception {
+        assertEquals("guessPost", nameOf(router.match("POST", "/guess")));
+        assertEquals("guessAny", nameOf(router.match("GET", "/guess")));
+    }
+
+    @Test
+    void ignoresQueryString() throws Exception {
+        assertEquals("ping", nameOf(router.match("GET", "/ping?verbose=true")));
+    }
+
+    @Test
+    void returnsNullWithoutMatchingRouteOrMethod() {
+        assertNull(router.match("GET", "/pingpong"));
+        assertNull(router.match("GET", "/ping/1/2"));
+        assertNull(router.match("POST", "/users/1/posts/2"));
+    }
+
+    @Test
+    void rejectsDuplicateAndConflictingRoutes() {
+        assertThrows(IllegalArgumentException.class, () -> router.register(Router.ANY_METHOD, "/ping", named("again")));
+        assertThrows(IllegalArgumentException.class, () -> router.register("GET", "/ping/{delay}", named("conflict")));
+        assertThrows(IllegalArgumentException.class, () -> router.register("GET", "/a/{*rest}/b", named("invalid")));
+    }
+}
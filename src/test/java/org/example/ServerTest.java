@@ -3,9 +3,18 @@ package org.example;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -45,7 +54,9 @@ class ServerTest {
     void localSocketAddressCreated() throws IOException, InterruptedException {
         server.run();
         Thread.sleep(5);
-        assertEquals("0.0.0.0/0.0.0.0:80", server.getSocket().getLocalSocketAddress().toString());
+        var address = (InetSocketAddress) server.getSocket().getLocalSocketAddress();
+        assertTrue(address.getAddress().isAnyLocalAddress());
+        assertEquals(80, address.getPort());
         server.stop();
     }
 
@@ -67,6 +78,18 @@ class ServerTest {
         server.stop();
     }
 
+    @Test
+    void stopAfterAFailedBindDoesNotThrow() throws IOException {
+        try (var occupied = new ServerSocket(0)) {
+            server.parseArgs(new String[]{"-p", String.valueOf(occupied.getLocalPort())});
+            server.handleIO();
+
+            assertNull(server.getSocket());
+            assertDoesNotThrow(server::stop);
+            assertDoesNotThrow(() -> server.stopGracefully());
+        }
+    }
+
     @Test
     void stopClosesTheConnectionToPort() throws IOException, InterruptedException {
         server.run();
@@ -91,13 +114,18 @@ class ServerTest {
     @Test
     void getResponseHello() throws IOException, InterruptedException {
         var inputStream = new ByteArrayInputStream("GET /hello HTTP/1.1".getBytes());
+        var file = new File("./hello/index.html");
         var expected = """
                 HTTP/1.1 200 OK\r
-                Content-Type: text/html
+                Content-Type: text/html\r
+                Content-Length: 16\r
+                ETag: %s\r
+                Last-Modified: %s\r
+                Accept-Ranges: bytes\r
                 Server: httpServer1.1\r
                 \r
                 <h1>Hello!</h1>
-                """;
+                """.formatted(server.getETag(file), server.getLastModified(file));
         var result = new String(server.getResponse(inputStream));
         assertEquals(expected, result);
     }
@@ -105,13 +133,18 @@ class ServerTest {
     @Test
     void getResponseGoodBye() throws IOException, InterruptedException {
         var inputStream = new ByteArrayInputStream("GET /goodbye HTTP/1.1".getBytes());
+        var file = new File("./goodbye/index.html");
         var expected = """
                 HTTP/1.1 200 OK\r
-                Content-Type: text/html
+                Content-Type: text/html\r
+                Content-Length: 17\r
+                ETag: %s\r
+                Last-Modified: %s\r
+                Accept-Ranges: bytes\r
                 Server: httpServer1.1\r
                 \r
                 <h1>Goodbye</h1>
-                """;
+                """.formatted(server.getETag(file), server.getLastModified(file));
         var result = new String(server.getResponse(inputStream));
         assertEquals(expected, result);
     }
@@ -121,7 +154,8 @@ class ServerTest {
         var inputStream = new ByteArrayInputStream("GET /hamburger HTTP/1.1".getBytes());
         var expected = """
                 HTTP/1.1 404 Not Found\r
-                Content-Type: text/html
+                Content-Type: text/html\r
+                Content-Length: 60\r
                 Server: httpServer1.1\r
                 \r
                 <h1>404: This isn't the directory you are looking for.</h1>
@@ -134,12 +168,14 @@ class ServerTest {
     void getResponseForNoIndex() throws IOException, InterruptedException {
         var inputStream = new ByteArrayInputStream("GET /noIndex HTTP/1.1".getBytes());
         var directory = new File(server.getRoot() + "/noIndex");
+        var content = server.buildDirectoryListing(directory);
         var expected ="""
                 HTTP/1.1 200 OK\r
-                Content-Type: text/html
+                Content-Type: text/html\r
+                Content-Length: %d\r
                 Server: httpServer1.1\r
                 \r
-                %s""".formatted(server.buildDirectoryListing(directory));
+                %s""".formatted(content.getBytes().length, content);
         var result = new String(server.getResponse(inputStream));
         assertEquals(expected, result);
     }
@@ -148,12 +184,17 @@ class ServerTest {
     void getResponseForNotIndexHTML() throws IOException, InterruptedException {
         var inputStream = new ByteArrayInputStream("GET /noIndex/notIndex.html HTTP/1.1".getBytes());
         var file = new File(server.getRoot() + "/noIndex/notIndex.html");
+        var content = server.getTextFileContent(file);
         var expected ="""
                 HTTP/1.1 200 OK\r
-                Content-Type: text/html
+                Content-Type: text/html\r
+                Content-Length: %d\r
+                ETag: %s\r
+                Last-Modified: %s\r
+                Accept-Ranges: bytes\r
                 Server: httpServer1.1\r
                 \r
-                %s""".formatted(server.getTextFileContent(file));
+                %s""".formatted(content.getBytes().length, server.getETag(file), server.getLastModified(file), content);
         var result = new String(server.getResponse(inputStream));
         assertEquals(expected, result);
     }
@@ -162,26 +203,288 @@ class ServerTest {
     void getResponseForThings() throws IOException, InterruptedException {
         var inputStream = new ByteArrayInputStream("GET /noIndex HTTP/1.1".getBytes());
         var directory = new File(server.getRoot() + "/noIndex");
+        var content = server.buildDirectoryListing(directory);
         var expected ="""
                 HTTP/1.1 200 OK\r
-                Content-Type: text/html
+                Content-Type: text/html\r
+                Content-Length: %d\r
                 Server: httpServer1.1\r
                 \r
-                %s""".formatted(server.buildDirectoryListing(directory));
+                %s""".formatted(content.getBytes().length, content);
         var result = new String(server.getResponse(inputStream));
         assertEquals(expected, result);
     }
 
+    @Test
+    void getResponseForBinaryFileStreamsFileBytes() throws IOException, InterruptedException {
+        var inputStream = new ByteArrayInputStream("GET /things/miata.png HTTP/1.1".getBytes());
+        var file = new File("./things/miata.png");
+        var content = Files.readAllBytes(file.toPath());
+        var head = """
+                HTTP/1.1 200 OK\r
+                Content-Type: image/png\r
+                Content-Length: %d\r
+                ETag: %s\r
+                Last-Modified: %s\r
+                Accept-Ranges: bytes\r
+                Server: httpServer1.1\r
+                \r
+                """.formatted(content.length, server.getETag(file), server.getLastModified(file));
+        var expected = new ByteArrayOutputStream();
+        expected.write(head.getBytes());
+        expected.write(content);
+        assertArrayEquals(expected.toByteArray(), server.getResponse(inputStream));
+    }
+
+    @Test
+    void getResponseServesRepeatHitsFromCache() throws IOException, InterruptedException {
+        var first = server.getResponse(new ByteArrayInputStream("GET /hello HTTP/1.1".getBytes()));
+        var second = server.getResponse(new ByteArrayInputStream("GET /hello HTTP/1.1".getBytes()));
+        assertArrayEquals(first, second);
+        assertEquals(1, server.getStaticFileCache().getHitCount());
+    }
+
+    private byte[] bodyOf(byte[] response) {
+        var headEnd = new String(response, StandardCharsets.ISO_8859_1).indexOf("\r\n\r\n") + 4;
+        return Arrays.copyOfRange(response, headEnd, response.length);
+    }
+
+    @Test
+    void getResponseGzipsTextWhenAccepted() throws IOException, InterruptedException {
+        var request = "GET /things/miata.txt HTTP/1.1\r\nAccept-Encoding: gzip\r\n\r\n";
+        var response = server.getResponse(new ByteArrayInputStream(request.getBytes()));
+        var head = new String(response);
+
+        assertTrue(head.contains("Content-Encoding: gzip\r\n"));
+        assertTrue(head.contains("Vary: Accept-Encoding\r\n"));
+        var body = new GZIPInputStream(new ByteArrayInputStream(bodyOf(response))).readAllBytes();
+        assertEquals(server.getTextFileContent(new File("./things/miata.txt")), new String(body));
+    }
+
+    @Test
+    void getResponseReusesCachedCompressedVariant() throws IOException, InterruptedException {
+        var request = "GET /things/miata.txt HTTP/1.1\r\nAccept-Encoding: gzip\r\n\r\n";
+        var first = server.getResponse(new ByteArrayInputStream(request.getBytes()));
+        var cachedBytes = server.getStaticFileCache().getCachedBytes();
+        var second = server.getResponse(new ByteArrayInputStream(request.getBytes()));
+
+        assertArrayEquals(first, second);
+        assertEquals(cachedBytes, server.getStaticFileCache().getCachedBytes());
+    }
+
+    @Test
+    void getResponseDoesNotCompressImages() throws IOException, InterruptedException {
+        var request = "GET /things/miata.png HTTP/1.1\r\nAccept-Encoding: gzip\r\n\r\n";
+        var response = new String(server.getResponse(new ByteArrayInputStream(request.getBytes())));
+        assertFalse(response.contains("Content-Encoding"));
+    }
+
+    @Test
+    void getResponseServesGzipSidecar(@TempDir Path root) throws IOException, InterruptedException {
+        var content = "plain text ".repeat(50);
+        Files.writeString(root.resolve("page.txt"), content);
+        Files.write(root.resolve("page.txt.gz"), Compression.compress("from sidecar".getBytes(), "gzip"));
+        server.parseArgs(new String[]{"-r", root.toString()});
+
+        var request = "GET /page.txt HTTP/1.1\r\nAccept-Encoding: gzip\r\n\r\n";
+        var response = server.getResponse(new ByteArrayInputStream(request.getBytes()));
+        var body = new GZIPInputStream(new ByteArrayInputStream(bodyOf(response))).readAllBytes();
+        assertEquals("from sidecar", new String(body));
+    }
+
+    @Test
+    void getResponseNotModifiedForMatchingETag() throws IOException, InterruptedException {
+        var etag = server.getETag(new File("./hello/index.html"));
+        var request = "GET /hello HTTP/1.1\r\nIf-None-Match: \"other\", %s\r\n\r\n".formatted(etag);
+        var expected = """
+                HTTP/1.1 304 Not Modified\r
+                ETag: %s\r
+                Last-Modified: %s\r
+                Server: httpServer1.1\r
+                \r
+                """.formatted(etag, server.getLastModified(new File("./hello/index.html")));
+        assertEquals(expected, new String(server.getResponse(new ByteArrayInputStream(request.getBytes()))));
+    }
+
+    @Test
+    void headResponseOmitsTheBodyOnAKeepAliveConnection() throws IOException, InterruptedException {
+        var port = startBlockingServer();
+        try {
+            try (var client = new Socket("localhost", port)) {
+                client.getOutputStream().write("HEAD /hello HTTP/1.1\r\n\r\nGET /goodbye HTTP/1.1\r\nConnection: close\r\n\r\n".getBytes());
+                var response = new String(client.getInputStream().readAllBytes());
+                var headEnd = response.indexOf("\r\n\r\n") + 4;
+
+                assertTrue(response.startsWith("HTTP/1.1 200 OK\r\n"));
+                assertTrue(response.substring(0, headEnd).contains("Content-Length: 16\r\n"));
+                assertTrue(response.startsWith("HTTP/1.1 200 OK\r\n", headEnd));
+                assertFalse(response.contains("Hello!"));
+                assertTrue(response.endsWith("<h1>Goodbye</h1>\n"));
+            }
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void notModifiedReachesTheClientOverASocket() throws IOException, InterruptedException {
+        var port = startBlockingServer();
+        var etag = server.getETag(new File("./hello/index.html"));
+        try (var client = new Socket("localhost", port)) {
+            client.getOutputStream().write("GET /hello HTTP/1.1\r\nIf-None-Match: %s\r\nConnection: close\r\n\r\n".formatted(etag).getBytes());
+            var response = new String(client.getInputStream().readAllBytes());
+
+            assertTrue(response.startsWith("HTTP/1.1 304 Not Modified\r\n"));
+            assertTrue(response.contains("ETag: " + etag + "\r\n"));
+            assertTrue(response.endsWith("\r\n\r\n"));
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void getResponseFullForStaleETag() throws IOException, InterruptedException {
+        var request = "GET /hello HTTP/1.1\r\nIf-None-Match: \"stale\"\r\n\r\n";
+        var response = new String(server.getResponse(new ByteArrayInputStream(request.getBytes())));
+        assertTrue(response.startsWith("HTTP/1.1 200 OK"));
+    }
+
+    @Test
+    void getResponseNotModifiedSinceLastModified() throws IOException, InterruptedException {
+        var lastModified = server.getLastModified(new File("./things/miata.png"));
+        var request = "GET /things/miata.png HTTP/1.1\r\nIf-Modified-Since: %s\r\n\r\n".formatted(lastModified);
+        var response = new String(server.getResponse(new ByteArrayInputStream(request.getBytes())));
+        assertTrue(response.startsWith("HTTP/1.1 304 Not Modified"));
+        assertFalse(response.contains("Content-Length"));
+    }
+
+    @Test
+    void getResponseFullWhenModifiedAfterDate() throws IOException, InterruptedException {
+        var request = "GET /things/miata.png HTTP/1.1\r\nIf-Modified-Since: Thu, 01 Jan 1970 00:00:00 GMT\r\n\r\n";
+        var response = new String(server.getResponse(new ByteArrayInputStream(request.getBytes())));
+        assertTrue(response.startsWith("HTTP/1.1 200 OK"));
+    }
+
+    @Test
+    void getResponseServesSingleByteRange() throws IOException, InterruptedException {
+        var file = new File("./things/miata.gif");
+        var content = Files.readAllBytes(file.toPath());
+        var request = "GET /things/miata.gif HTTP/1.1\r\nRange: bytes=10-19\r\n\r\n";
+        var response = server.getResponse(new ByteArrayInputStream(request.getBytes()));
+        var head = new String(response, StandardCharsets.ISO_8859_1);
+
+        assertTrue(head.startsWith("HTTP/1.1 206 Partial Content\r\n"));
+        assertTrue(head.contains("Content-Length: 10\r\n"));
+        assertTrue(head.contains("Content-Range: bytes 10-19/" + content.length + "\r\n"));
+        assertArrayEquals(Arrays.copyOfRange(content, 10, 20), bodyOf(response));
+    }
+
+    @Test
+    void getResponseServesSuffixRangeFromCache() throws IOException, InterruptedException {
+        var content = server.getTextFileContent(new File("./hello/index.html")).getBytes();
+        var request = "GET /hello HTTP/1.1\r\nRange: bytes=-6\r\n\r\n";
+        server.getResponse(new ByteArrayInputStream("GET /hello HTTP/1.1".getBytes()));
+        var response = server.getResponse(new ByteArrayInputStream(request.getBytes()));
+
+        assertTrue(new String(response).contains("Content-Range: bytes %d-%d/%d\r\n".formatted(content.length - 6, content.length - 1, content.length)));
+        assertArrayEquals(Arrays.copyOfRange(content, content.length - 6, content.length), bodyOf(response));
+    }
+
+    @Test
+    void getResponseServesMultipleRangesAsMultipart() throws IOException, InterruptedException {
+        var file = new File("./things/miata.png");
+        var content = Files.readAllBytes(file.toPath());
+        var request = "GET /things/miata.png HTTP/1.1\r\nRange: bytes=0-3, 8-11\r\n\r\n";
+        var response = new String(server.getResponse(new ByteArrayInputStream(request.getBytes())), StandardCharsets.ISO_8859_1);
+
+        assertTrue(response.startsWith("HTTP/1.1 206 Partial Content\r\n"));
+        var boundary = response.split("boundary=", 2)[1].split("\r\n", 2)[0];
+        var part = "\r\n--%s\r\nContent-Type: image/png\r\nContent-Range: bytes %s/%d\r\n\r\n%s";
+        var expectedBody = part.formatted(boundary, "0-3", content.length, new String(content, 0, 4, StandardCharsets.ISO_8859_1))
+                + part.formatted(boundary, "8-11", content.length, new String(content, 8, 4, StandardCharsets.ISO_8859_1))
+                + "\r\n--" + boundary + "--\r\n";
+        assertTrue(response.endsWith(expectedBody));
+    }
+
+    @Test
+    void getResponseRangeNotSatisfiable() throws IOException, InterruptedException {
+        var length = new File("./things/miata.png").length();
+        var request = "GET /things/miata.png HTTP/1.1\r\nRange: bytes=%d-\r\n\r\n".formatted(length);
+        var response = new String(server.getResponse(new ByteArrayInputStream(request.getBytes())));
+
+        assertTrue(response.startsWith("HTTP/1.1 416 Range Not Satisfiable\r\n"));
+        assertTrue(response.contains("Content-Range: bytes */" + length + "\r\n"));
+        assertTrue(response.contains("Content-Length: 0\r\n"));
+    }
+
+    @Test
+    void rangeNotSatisfiableReachesTheClientOverASocket() throws IOException, InterruptedException {
+        var port = startBlockingServer();
+        var length = new File("./things/miata.png").length();
+        try (var client = new Socket("localhost", port)) {
+            client.getOutputStream().write("GET /things/miata.png HTTP/1.1\r\nRange: bytes=%d-\r\nConnection: close\r\n\r\n".formatted(length).getBytes());
+            var response = new String(client.getInputStream().readAllBytes());
+
+            assertTrue(response.startsWith("HTTP/1.1 416 Range Not Satisfiable\r\n"));
+            assertTrue(response.contains("Content-Range: bytes */" + length + "\r\n"));
+            assertTrue(response.endsWith("\r\n\r\n"));
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void getResponseIgnoresRangeWhenIfRangeIsStale() throws IOException, InterruptedException {
+        var request = "GET /things/miata.png HTTP/1.1\r\nRange: bytes=0-9\r\nIf-Range: \"stale\"\r\n\r\n";
+        var response = new String(server.getResponse(new ByteArrayInputStream(request.getBytes())));
+        assertTrue(response.startsWith("HTTP/1.1 200 OK\r\n"));
+    }
+
+    @Test
+    void getResponseHonoursRangeWhenIfRangeMatches() throws IOException, InterruptedException {
+        var file = new File("./things/miata.png");
+        var etagRequest = "GET /things/miata.png HTTP/1.1\r\nRange: bytes=0-9\r\nIf-Range: %s\r\n\r\n".formatted(server.getETag(file));
+        var dateRequest = "GET /things/miata.png HTTP/1.1\r\nRange: bytes=0-9\r\nIf-Range: %s\r\n\r\n".formatted(server.getLastModified(file));
+
+        assertTrue(new String(server.getResponse(new ByteArrayInputStream(etagRequest.getBytes()))).startsWith("HTTP/1.1 206"));
+        assertTrue(new String(server.getResponse(new ByteArrayInputStream(dateRequest.getBytes()))).startsWith("HTTP/1.1 206"));
+    }
+
+    @Test
+    void getResponseOmitsAcceptRangesForListings() throws IOException, InterruptedException {
+        var response = new String(server.getResponse(new ByteArrayInputStream("GET /listing HTTP/1.1".getBytes())));
+        assertFalse(response.contains("Accept-Ranges"));
+    }
+
+    @Test
+    void getResponseIgnoresIfModifiedSinceWhenIfNoneMatchPresent() throws IOException, InterruptedException {
+        var lastModified = server.getLastModified(new File("./hello/index.html"));
+        var request = "GET /hello HTTP/1.1\r\nIf-None-Match: \"stale\"\r\nIf-Modified-Since: %s\r\n\r\n".formatted(lastModified);
+        var response = new String(server.getResponse(new ByteArrayInputStream(request.getBytes())));
+        assertTrue(response.startsWith("HTTP/1.1 200 OK"));
+    }
+
+    @Test
+    void getResponseGzipVariantHasItsOwnETag() throws IOException, InterruptedException {
+        var etag = server.getETag(new File("./things/miata.txt"));
+        var request = "GET /things/miata.txt HTTP/1.1\r\nAccept-Encoding: gzip\r\n\r\n";
+        var response = new String(server.getResponse(new ByteArrayInputStream(request.getBytes())));
+        var gzipETag = etag.substring(0, etag.length() - 1) + "-gzip\"";
+        assertTrue(response.contains("ETag: " + gzipETag + "\r\n"));
+    }
+
     @Test
     void getResponseForListing() throws IOException, InterruptedException {
         var inputStream = new ByteArrayInputStream("GET /listing HTTP/1.1".getBytes());
         var directory = new File(server.getRoot());
+        var content = server.buildDirectoryListing(directory);
         var expected ="""
                 HTTP/1.1 200 OK\r
-                Content-Type: text/html
+                Content-Type: text/html\r
+                Content-Length: %d\r
                 Server: httpServer1.1\r
                 \r
-                %s""".formatted(server.buildDirectoryListing(directory));
+                %s""".formatted(content.getBytes().length, content);
         var result = new String(server.getResponse(inputStream));
         assertEquals(expected, result);
     }
@@ -190,12 +493,14 @@ class ServerTest {
     void getResponseForListingHello() throws IOException, InterruptedException {
         var inputStream = new ByteArrayInputStream("GET /listing/hello HTTP/1.1".getBytes());
         var directory = new File(server.getRoot() + "/hello");
+        var content = server.buildDirectoryListing(directory);
         var expected ="""
                 HTTP/1.1 200 OK\r
-                Content-Type: text/html
+                Content-Type: text/html\r
+                Content-Length: %d\r
                 Server: httpServer1.1\r
                 \r
-                %s""".formatted(server.buildDirectoryListing(directory));
+                %s""".formatted(content.getBytes().length, content);
         var result = new String(server.getResponse(inputStream));
         assertEquals(expected, result);
     }
@@ -206,11 +511,11 @@ class ServerTest {
         var result =
         "<h1>Directory Listing for ./things</h1>\n"
         + "<ul>"
-        + "<li><a href=\"/things/miata.pdf\">miata.pdf</a></li>"
+        + "<li><a href=\"/things/miata.gif\">miata.gif</a></li>"
         + "<li><a href=\"/things/miata.jpg\">miata.jpg</a></li>"
+        + "<li><a href=\"/things/miata.pdf\">miata.pdf</a></li>"
         + "<li><a href=\"/things/miata.png\">miata.png</a></li>"
         + "<li><a href=\"/things/miata.txt\">miata.txt</a></li>"
-        + "<li><a href=\"/things/miata.gif\">miata.gif</a></li>"
         + "</ul>";
         assertEquals(result, server.buildDirectoryListing(directory));
     }
@@ -283,32 +588,32 @@ class ServerTest {
 
     @Test
     void getContentTypeReturnsHTML() {
-        assertEquals("Content-Type: text/html\n", server.getContentType("/hello/welcome.html"));
+        assertEquals("Content-Type: text/html\r\n", server.getContentType("/hello/welcome.html"));
     }
 
     @Test
     void getContentTypeReturnsPNG() {
-        assertEquals("Content-Type: image/png\n", server.getContentType("/things/miata.png"));
+        assertEquals("Content-Type: image/png\r\n", server.getContentType("/things/miata.png"));
     }
 
     @Test
     void getContentTypeReturnsGIF() {
-        assertEquals("Content-Type: image/gif\n", server.getContentType("/things/miata.gif"));
+        assertEquals("Content-Type: image/gif\r\n", server.getContentType("/things/miata.gif"));
     }
 
     @Test
     void getContentTypeReturnsJPEG() {
-        assertEquals("Content-Type: image/jpeg\n", server.getContentType("/things/miata.jpeg"));
+        assertEquals("Content-Type: image/jpeg\r\n", server.getContentType("/things/miata.jpeg"));
     }
 
     @Test
     void getContentTypeReturnsPDF() {
-        assertEquals("Content-Type: application/pdf\n", server.getContentType("/things/miata.pdf"));
+        assertEquals("Content-Type: application/pdf\r\n", server.getContentType("/things/miata.pdf"));
     }
 
     @Test
     void getContentTypeReturnsHtmlForDirectory() {
-        assertEquals("Content-Type: text/html\n", server.getContentType("/things"));
+        assertEquals("Content-Type: text/html\r\n", server.getContentType("/things"));
     }
 
     @Test
@@ -347,6 +652,28 @@ class ServerTest {
         assertEquals(8080, server.getPort());
     }
 
+    @Test
+    void parseArgsSetsVirtualExecutorByDefault() {
+        server.parseArgs(new String[0]);
+        assertEquals("virtual", server.getExecutorMode());
+    }
+
+    @Test
+    void parseArgsSetsPoolExecutorWith16Threads() {
+        String[] args = {"-e", "pool", "-n", "16"};
+        server.parseArgs(args);
+        assertEquals("pool", server.getExecutorMode());
+        assertEquals(16, server.getPoolSize());
+    }
+
+    @Test
+    void parseArgsSetsNioEngineWith2EventLoops() {
+        String[] args = {"-m", "nio", "-l", "2"};
+        server.parseArgs(args);
+        assertEquals("nio", server.getEngine());
+        assertEquals(2, server.getEventLoopCount());
+    }
+
     @Test
     void parseArgsXPrintsSystemSettings() {
         String[] args = {"-x"};
@@ -355,6 +682,8 @@ class ServerTest {
                 Example Server
                 Running on port: 80
                 Serving files from: /Users/scoops/Projects/httpServer1.1
+                Server engine: blocking
+                Connection executor: virtual
                 """;
         assertEquals(result, baos.toString());
     }
@@ -380,6 +709,19 @@ class ServerTest {
         var result = """
                   -p     Specify the port.  Default is 80.
                   -r     Specify the root directory.  Default is the current working directory.
+                  -e     Specify the connection executor: virtual or pool.  Default is virtual.
+                  -n     Specify the thread count of the pool executor.  Default is 200.
+                  -m     Specify the server engine: blocking or nio.  Default is blocking.
+                  -l     Specify the number of nio event loops.  Default is one per core.
+                  -t     Specify a mime.types file overriding the built-in MIME table.
+                  -s     Specify the guessing game session store: memory or a directory.  Default is memory.
+                  -b     Specify the listen backlog.  Default is 50.
+                  -c     Specify the max concurrent requests before answering 503.  Default is unlimited.
+                  -g     Specify the concurrency limiter: fixed or aimd.  Default is fixed.
+                  -i     Specify the number of acceptors, each with its own SO_REUSEPORT listener.  Default is 1.
+                  -d     Specify the graceful shutdown drain timeout in seconds.  Default is 30.
+                  -a     Specify an access log file.  Default is no access log.
+                  -o     Specify the access log overflow policy: drop or block.  Default is drop.
                   -h     Print this help message
                   -x     Print the startup configuration without starting the server
                 """;
@@ -411,6 +753,7 @@ class ServerTest {
     void getRequestReturnsPostHello() throws IOException {
         var result = """
                 POST /hello HTTP/1.1 \r
+                Content-Length: 10\r
                 \r
                 "message"
                 """;
@@ -418,13 +761,513 @@ class ServerTest {
         assertEquals(result, server.getRequest(inputStream));
     }
 
+    @Test
+    void getRequestReadsBodyByContentLength() throws IOException {
+        var request = "POST /guess HTTP/1.1\r\nContent-Length: 8\r\n\r\nguess=42";
+        var inputStream = new ByteArrayInputStream((request + "GET /hello HTTP/1.1\r\n\r\n").getBytes());
+        assertEquals(request, server.getRequest(inputStream));
+    }
+
+    @Test
+    void getRequestDecodesChunkedBody() throws IOException {
+        var head = "POST /form HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n";
+        var chunks = "5\r\nhello\r\n7;ext=1\r\n, world\r\n0\r\n\r\n";
+        var inputStream = new ByteArrayInputStream((head + chunks).getBytes());
+        assertEquals(head + "hello, world", server.getRequest(inputStream));
+    }
+
+    @Test
+    void getRequestLeavesNextRequestInStream() throws IOException {
+        var first = "GET /hello HTTP/1.1\r\n\r\n";
+        var second = "GET /goodbye HTTP/1.1\r\n\r\n";
+        var inputStream = new ByteArrayInputStream((first + second).getBytes());
+        assertEquals(first, server.getRequest(inputStream));
+        assertEquals(second, server.getRequest(inputStream));
+        assertEquals("", server.getRequest(inputStream));
+    }
+
+    @Test
+    void getHeaderValueIgnoresCase() {
+        var request = "GET / HTTP/1.1\r\ncontent-length: 12\r\n\r\n";
+        assertEquals("12", server.getHeaderValue(request, "Content-Length"));
+    }
+
+    @Test
+    void isKeepAliveForHttp11ByDefault() {
+        assertTrue(server.isKeepAlive("GET / HTTP/1.1\r\n\r\n"));
+    }
+
+    @Test
+    void isKeepAliveFalseForConnectionClose() {
+        assertFalse(server.isKeepAlive("GET / HTTP/1.1\r\nConnection: close\r\n\r\n"));
+    }
+
+    @Test
+    void isKeepAliveFalseForHttp10UnlessRequested() {
+        assertFalse(server.isKeepAlive("GET / HTTP/1.0\r\n\r\n"));
+        assertTrue(server.isKeepAlive("GET / HTTP/1.0\r\nConnection: keep-alive\r\n\r\n"));
+    }
+
+    @Test
+    void handleConnectionServesManyRequestsOnOneSocket() throws IOException {
+        try (var listener = new ServerSocket(0); var client = new Socket()) {
+            client.connect(listener.getLocalSocketAddress());
+            var accepted = listener.accept();
+            new Thread(() -> server.handleConnection(accepted)).start();
+
+            var out = client.getOutputStream();
+            out.write("GET /hello HTTP/1.1\r\n\r\nGET /goodbye HTTP/1.1\r\nConnection: close\r\n\r\n".getBytes());
+            out.flush();
+
+            var response = new String(client.getInputStream().readAllBytes());
+            assertTrue(response.contains("<h1>Hello!</h1>"));
+            assertTrue(response.endsWith("<h1>Goodbye</h1>\n"));
+        }
+    }
+
+    @Test
+    void handleConnectionAnswersPipelinedRequestsInOrder() throws IOException {
+        try (var listener = ServerSocketChannel.open().bind(new InetSocketAddress(0));
+             var client = new Socket("localhost", listener.socket().getLocalPort())) {
+            var accepted = listener.accept().socket();
+            new Thread(() -> server.handleConnection(accepted)).start();
+
+            var out = client.getOutputStream();
+            out.write(("GET /goodbye HTTP/1.1\r\n\r\n" +
+                    "GET /things/miata.png HTTP/1.1\r\n\r\n" +
+                    "GET /hello HTTP/1.1\r\nConnection: close\r\n\r\n").getBytes());
+            out.flush();
+
+            var response = client.getInputStream().readAllBytes();
+            var text = new String(response, StandardCharsets.ISO_8859_1);
+            var png = Files.readAllBytes(Path.of("./things/miata.png"));
+            assertTrue(text.indexOf("<h1>Goodbye</h1>") < text.indexOf("Content-Type: image/png"));
+            assertTrue(text.endsWith("<h1>Hello!</h1>\n"));
+            assertTrue(text.contains(new String(png, StandardCharsets.ISO_8859_1)));
+        }
+    }
+
+    private String multipartUpload(String boundary, String fileName, String contentType, byte[] content) {
+        return "--%s\r\nContent-Disposition: form-data; name=\"title\"\r\n\r\nignored\r\n".formatted(boundary)
+                + "--%s\r\nContent-Disposition: form-data; name=\"file\"; filename=\"%s\"\r\nContent-Type: %s\r\n\r\n"
+                .formatted(boundary, fileName, contentType)
+                + new String(content, StandardCharsets.ISO_8859_1)
+                + "\r\n--%s--\r\n".formatted(boundary);
+    }
+
+    @Test
+    void postFormReportsUploadedFile() throws IOException, InterruptedException {
+        var body = multipartUpload("b0undary", "notes.txt", "text/plain", "some notes".getBytes());
+        var request = "POST /form HTTP/1.1\r\nContent-Type: multipart/form-data; boundary=b0undary\r\nContent-Length: %d\r\n\r\n%s"
+                .formatted(body.length(), body);
+        var response = new String(server.getResponse(new ByteArrayInputStream(request.getBytes())));
+
+        assertTrue(response.startsWith("HTTP/1.1 200 OK"));
+        assertTrue(response.endsWith("""
+                <h2>POST Form</h2>
+                <li>File name: notes.txt</li>
+                <li>content type: text/plain</li>
+                <li>file size: 10</li>
+                """));
+    }
+
+    @Test
+    void postFormEscapesFileName() throws IOException, InterruptedException {
+        var body = multipartUpload("b0undary", "<b>.txt", "text/plain", "x".getBytes());
+        var request = "POST /form HTTP/1.1\r\nContent-Type: multipart/form-data; boundary=b0undary\r\nContent-Length: %d\r\n\r\n%s"
+                .formatted(body.length(), body);
+        var response = new String(server.getResponse(new ByteArrayInputStream(request.getBytes())));
+        assertTrue(response.contains("<li>File name: &lt;b&gt;.txt</li>"));
+    }
+
+    @Test
+    void postFormWithoutMultipartIsBadRequest() throws IOException, InterruptedException {
+        var request = "POST /form HTTP/1.1\r\nContent-Type: text/plain\r\nContent-Length: 5\r\n\r\nhello";
+        var response = new String(server.getResponse(new ByteArrayInputStream(request.getBytes())));
+        assertTrue(response.startsWith("HTTP/1.1 400 Bad Request"));
+    }
+
+    @Test
+    void handleConnectionStreamsUploadAndKeepsTheConnection() throws IOException {
+        var png = Files.readAllBytes(Path.of("./things/miata.png"));
+        var body = multipartUpload("b0undary", "miata.png", "image/png", png).getBytes(StandardCharsets.ISO_8859_1);
+        var head = "POST /form HTTP/1.1\r\nContent-Type: multipart/form-data; boundary=b0undary\r\nContent-Length: %d\r\n\r\n"
+                .formatted(body.length);
+
+        try (var listener = new ServerSocket(0); var client = new Socket()) {
+            client.connect(listener.getLocalSocketAddress());
+            var accepted = listener.accept();
+            new Thread(() -> server.handleConnection(accepted)).start();
+
+            var out = client.getOutputStream();
+            out.write(head.getBytes());
+            out.write(body);
+            out.write("GET /hello HTTP/1.1\r\nConnection: close\r\n\r\n".getBytes());
+            out.flush();
+
+            var response = new String(client.getInputStream().readAllBytes());
+            assertTrue(response.contains("<li>file size: %d</li>".formatted(png.length)));
+            assertTrue(response.endsWith("<h1>Hello!</h1>\n"));
+        }
+    }
+
+    @Test
+    void postFormAnswersBadRequestForMalformedMultipartBody() throws IOException, InterruptedException {
+        var body = "--b0undary\r\nContent-Disposition form-data\r\n\r\nx\r\n--b0undary--\r\n";
+        var request = "POST /form HTTP/1.1\r\nContent-Type: multipart/form-data; boundary=b0undary\r\nContent-Length: %d\r\n\r\n%s"
+                .formatted(body.length(), body);
+        var response = new String(server.getResponse(new ByteArrayInputStream(request.getBytes())));
+        assertTrue(response.startsWith("HTTP/1.1 400 Bad Request"));
+    }
+
+    @Test
+    void handleConnectionAnswersBadRequestForTruncatedMultipartAndKeepsTheConnection() throws IOException {
+        var body = "--b0undary\r\nContent-Disposition: form-data; name=\"f\"; filename=\"a.txt\"\r\n\r\nunterminated";
+        var head = "POST /form HTTP/1.1\r\nContent-Type: multipart/form-data; boundary=b0undary\r\nContent-Length: %d\r\n\r\n"
+                .formatted(body.length());
+
+        try (var listener = new ServerSocket(0); var client = new Socket()) {
+            client.connect(listener.getLocalSocketAddress());
+            var accepted = listener.accept();
+            new Thread(() -> server.handleConnection(accepted)).start();
+
+            var out = client.getOutputStream();
+            out.write((head + body).getBytes());
+            out.write("GET /hello HTTP/1.1\r\nConnection: close\r\n\r\n".getBytes());
+            out.flush();
+
+            var response = new String(client.getInputStream().readAllBytes());
+            assertTrue(response.startsWith("HTTP/1.1 400 Bad Request\r\n"));
+            assertTrue(response.endsWith("<h1>Hello!</h1>\n"));
+        }
+    }
+
+    @Test
+    void handleConnectionAnswersPayloadTooLargeForOversizedBodies() throws IOException {
+        try (var listener = new ServerSocket(0); var client = new Socket()) {
+            client.connect(listener.getLocalSocketAddress());
+            var accepted = listener.accept();
+            new Thread(() -> server.handleConnection(accepted)).start();
+
+            var head = "POST /guess HTTP/1.1\r\nContent-Length: %d\r\n\r\n".formatted(Server.MAX_BODY_SIZE + 1);
+            client.getOutputStream().write(head.getBytes());
+
+            var response = new String(client.getInputStream().readAllBytes());
+            assertTrue(response.startsWith("HTTP/1.1 413 Payload Too Large\r\n"));
+        }
+    }
+
+    @Test
+    void handleConnectionAnswersPayloadTooLargeForOversizedChunkedBodies() throws IOException {
+        try (var listener = new ServerSocket(0); var client = new Socket()) {
+            client.connect(listener.getLocalSocketAddress());
+            var accepted = listener.accept();
+            new Thread(() -> server.handleConnection(accepted)).start();
+
+            var chunkSize = Server.MAX_BODY_SIZE / 2 + 1;
+            var out = client.getOutputStream();
+            out.write("POST /guess HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n%x\r\n".formatted(chunkSize).getBytes());
+            out.write(new byte[chunkSize]);
+            out.write("\r\n%x\r\n".formatted(chunkSize).getBytes());
+
+            var response = new String(client.getInputStream().readAllBytes());
+            assertTrue(response.startsWith("HTTP/1.1 413 Payload Too Large\r\n"));
+            assertTrue(response.contains("Connection: close\r\n"));
+        }
+    }
+
+    @Test
+    void routeRegistersHandlerWithPathParameters() throws IOException, InterruptedException {
+        server.route("GET", "/greet/{name}", (request, parameters) ->
+                Response.of("200 OK", "Content-Type: text/plain\r\n", ("Hi " + parameters.get("name")).getBytes()));
+
+        var response = new String(server.getResponse(new ByteArrayInputStream("GET /greet/scoops HTTP/1.1".getBytes())));
+        assertTrue(response.endsWith("\r\n\r\nHi scoops"));
+    }
+
+    @Test
+    void listingRouteListsNestedDirectory() throws IOException, InterruptedException {
+        var response = new String(server.getResponse(new ByteArrayInputStream("GET /listing/hello HTTP/1.1".getBytes())));
+        assertTrue(response.contains(server.buildDirectoryListing(new File("./hello"))));
+    }
+
+    @Test
+    void listingRouteStartsAfterCursor() throws IOException, InterruptedException {
+        var response = new String(server.getResponse(new ByteArrayInputStream("GET /listing/noIndex?after=notIndex.html HTTP/1.1".getBytes())));
+        assertTrue(response.endsWith("<ul><li><a href=\"/noIndex/text.txt\">text.txt</a></li></ul>"));
+    }
+
+    @Test
+    void listingIsServedFromCacheOnRepeat() throws IOException, InterruptedException {
+        server.getResponse(new ByteArrayInputStream("GET /listing/hello HTTP/1.1".getBytes()));
+        server.getResponse(new ByteArrayInputStream("GET /listing/hello HTTP/1.1".getBytes()));
+        assertEquals(1, server.getDirectoryListingCache().getHitCount());
+    }
+
+    private String sessionCookieOf(String response) {
+        return response.split("Set-Cookie: " + SessionManager.COOKIE_NAME + "=", 2)[1].split(";", 2)[0];
+    }
+
+    @Test
+    void newGameIssuesSessionCookie() throws IOException, InterruptedException {
+        var response = new String(server.getResponse(new ByteArrayInputStream("GET /guess HTTP/1.1\r\n\r\n".getBytes())));
+
+        assertTrue(response.contains("Set-Cookie: guess-session="));
+        assertTrue(response.contains("; Path=/guess; Max-Age=1800; HttpOnly; SameSite=Lax\r\n"));
+        assertEquals(1, server.getSessionManager().size());
+    }
+
+    @Test
+    void guessesOnlyAffectTheirOwnSession() throws IOException, InterruptedException {
+        var first = sessionCookieOf(new String(server.getResponse(new ByteArrayInputStream("GET /guess HTTP/1.1\r\n\r\n".getBytes()))));
+        var second = sessionCookieOf(new String(server.getResponse(new ByteArrayInputStream("GET /guess HTTP/1.1\r\n\r\n".getBytes()))));
+        var guess = "POST /guess HTTP/1.1\r\nCookie: theme=dark; guess-session=%s\r\nContent-Length: 8\r\n\r\nguess=42";
+        server.getResponse(new ByteArrayInputStream(guess.formatted(first).getBytes()));
+        var response = new String(server.getResponse(new ByteArrayInputStream(guess.formatted(first).getBytes())));
+
+        assertEquals(first, sessionCookieOf(response));
+        assertEquals(5, server.getSessionManager().get(first).getGuessesLeft());
+        assertEquals(7, server.getSessionManager().get(second).getGuessesLeft());
+    }
+
+    @Test
+    void guessWithoutSessionStartsOne() throws IOException, InterruptedException {
+        var request = "POST /guess HTTP/1.1\r\nContent-Length: 8\r\n\r\nguess=42";
+        var response = new String(server.getResponse(new ByteArrayInputStream(request.getBytes())));
+
+        assertTrue(response.startsWith("HTTP/1.1 200 OK"));
+        assertEquals(6, server.getSessionManager().get(sessionCookieOf(response)).getGuessesLeft());
+    }
+
+    @Test
+    void delayedPingCompletesAsynchronously() throws IOException, InterruptedException {
+        var response = server.handleRequestAsync("GET /ping/1 HTTP/1.1\r\n\r\n");
+
+        assertFalse(response.isDone());
+        assertEquals(1, server.getResponseScheduler().getPendingCount());
+        assertEquals("200 OK", response.join().getStatus());
+    }
+
+    @Test
+    void handleRequestAsyncCompletesSynchronousRoutesImmediately() throws IOException, InterruptedException {
+        var response = server.handleRequestAsync("GET /hello HTTP/1.1\r\n\r\n");
+
+        assertTrue(response.isDone());
+        assertEquals("200 OK", response.join().getStatus());
+    }
+
+    @Test
+    void getCookieFindsNamedCookie() {
+        var request = "GET / HTTP/1.1\r\nCookie: a=1; guess-session=xyz\r\n\r\n";
+
+        assertEquals("xyz", server.getCookie(request, "guess-session"));
+        assertNull(server.getCookie(request, "missing"));
+        assertNull(server.getCookie("GET / HTTP/1.1\r\n\r\n", "a"));
+    }
+
+    @Test
+    void metricsRouteReportsPerRouteCounters() throws IOException, InterruptedException {
+        server.getResponse(new ByteArrayInputStream("GET /ping HTTP/1.1\r\n\r\n".getBytes()));
+        server.getResponse(new ByteArrayInputStream("GET /hello HTTP/1.1\r\n\r\n".getBytes()));
+        var response = new String(server.getResponse(new ByteArrayInputStream("GET /metrics HTTP/1.1\r\n\r\n".getBytes())));
+
+        assertTrue(response.startsWith("HTTP/1.1 200 OK"));
+        assertTrue(response.contains(Metrics.CONTENT_TYPE));
+        assertTrue(response.contains("http_requests_total{route=\"/ping\",code=\"2xx\"} 1\n"));
+        assertTrue(response.contains("http_requests_total{route=\"static\",code=\"2xx\"} 1\n"));
+        assertEquals(1, server.getMetrics().getRequestCount("/ping"));
+    }
+
+    @Test
+    void logAccessWritesToConfiguredAccessLog(@TempDir Path logs) throws IOException, InterruptedException {
+        var file = logs.resolve("access.log");
+        server.parseArgs(new String[]{"-a", file.toString(), "-o", "block"});
+        server.openAccessLog();
+
+        var request = "GET /ping HTTP/1.1\r\n\r\n";
+        var response = server.handleRequest(request);
+        server.logAccess(request, response, 42, 1_500_000, "127.0.0.1");
+        server.getAccessLog().close();
+
+        var line = Files.readString(file);
+        assertTrue(line.contains(" client=127.0.0.1 method=GET path=\"/ping\" status=200 bytes=42 duration_us=1500\n"));
+    }
+
+    @Test
+    void logAccessIsANoOpWithoutAnAccessLog() throws IOException, InterruptedException {
+        var request = "GET /ping HTTP/1.1\r\n\r\n";
+        server.logAccess(request, server.handleRequest(request), 42, 1, "127.0.0.1");
+
+        assertNull(server.getAccessLog());
+    }
+
+    @Test
+    void parseArgsConfiguresConcurrencyLimiter() {
+        assertEquals(ConcurrencyLimiter.UNLIMITED, server.getConcurrencyLimiter().getLimit());
+
+        server.parseArgs(new String[]{"-c", "8", "-g", "aimd", "-b", "128"});
+
+        assertEquals(8, server.getConcurrencyLimiter().getLimit());
+        assertTrue(server.getConcurrencyLimiter().isAdaptive());
+    }
+
+    @Test
+    void overloadedResponseAsksClientsToRetry() throws IOException {
+        var response = new String(server.buildOverloadedResponse().toByteArray());
+
+        assertTrue(response.startsWith("HTTP/1.1 503 Service Unavailable\r\n"));
+        assertTrue(response.contains("Retry-After: 1\r\n"));
+        assertTrue(response.contains("Connection: close\r\n"));
+    }
+
+    @Test
+    void acceptShedsConnectionsOnlyWhileRequestsSaturateTheLimiter() throws IOException, InterruptedException {
+        server.parseArgs(new String[]{"-c", "1"});
+        var port = startBlockingServer();
+        try {
+            server.getConcurrencyLimiter().tryAcquire();
+            try (var client = new Socket("localhost", port)) {
+                var response = new String(client.getInputStream().readAllBytes());
+                assertTrue(response.startsWith("HTTP/1.1 503 Service Unavailable\r\n"));
+            }
+
+            server.getConcurrencyLimiter().release(0);
+            try (var client = new Socket("localhost", port)) {
+                client.getOutputStream().write("GET /hello HTTP/1.1\r\nConnection: close\r\n\r\n".getBytes());
+                var response = new String(client.getInputStream().readAllBytes());
+                assertTrue(response.startsWith("HTTP/1.1 200 OK\r\n"));
+            }
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void metricsReportConcurrencyLimiter() throws IOException, InterruptedException {
+        server.parseArgs(new String[]{"-c", "4"});
+        server.getConcurrencyLimiter().tryAcquire();
+        var response = new String(server.getResponse(new ByteArrayInputStream("GET /metrics HTTP/1.1\r\n\r\n".getBytes())));
+
+        assertTrue(response.contains("http_concurrency_limit 4\n"));
+        assertTrue(response.contains("http_requests_in_flight 1\n"));
+        assertTrue(response.contains("http_requests_rejected_total 0\n"));
+    }
+
+    private int startBlockingServer() throws InterruptedException {
+        server.parseArgs(new String[]{"-p", "0"});
+        new Thread(server::handleIO).start();
+        while (server.getSocket() == null)
+            Thread.sleep(10);
+        return server.getSocket().getLocalPort();
+    }
+
+    private static String readResponseHead(InputStream in) throws IOException {
+        var head = new StringBuilder();
+        while (!head.toString().endsWith("\r\n\r\n")) {
+            int b = in.read();
+            if (b == -1)
+                break;
+            head.append((char) b);
+        }
+        return head.toString();
+    }
+
+    @Test
+    void stopGracefullyFinishesInFlightRequestsAndClosesIdleConnections() throws IOException, InterruptedException {
+        var port = startBlockingServer();
+        try (var busy = new Socket("localhost", port); var idle = new Socket("localhost", port)) {
+            idle.getOutputStream().write("GET /hello HTTP/1.1\r\n\r\n".getBytes());
+            assertTrue(readResponseHead(idle.getInputStream()).startsWith("HTTP/1.1 200 OK"));
+            while (server.getConcurrencyLimiter().getInFlight() > 0)
+                Thread.sleep(5);
+            busy.getOutputStream().write("GET /ping/1 HTTP/1.1\r\n\r\n".getBytes());
+            while (server.getConcurrencyLimiter().getInFlight() == 0)
+                Thread.sleep(5);
+
+            var stats = server.stopGracefully(5000);
+
+            var response = new String(busy.getInputStream().readAllBytes());
+            assertTrue(response.startsWith("HTTP/1.1 200 OK"));
+            assertTrue(response.contains("Connection: close\r\n"));
+            idle.getInputStream().skip(Long.MAX_VALUE);
+            assertEquals(-1, idle.getInputStream().read());
+            assertEquals(2, stats.connectionsAtStart());
+            assertEquals(1, stats.requestsAtStart());
+            assertTrue(stats.isComplete());
+            assertTrue(stats.elapsedMillis() < 5000);
+            assertTrue(server.getSocket().isClosed());
+        }
+    }
+
+    @Test
+    void stopGracefullyForceClosesConnectionsAfterTheDeadline() throws IOException, InterruptedException {
+        var port = startBlockingServer();
+        try (var slow = new Socket("localhost", port)) {
+            slow.getOutputStream().write("GET /ping/3 HTTP/1.1\r\n\r\n".getBytes());
+            while (server.getConcurrencyLimiter().getInFlight() == 0)
+                Thread.sleep(5);
+
+            var stats = server.stopGracefully(200);
+
+            assertFalse(stats.isComplete());
+            assertEquals(1, stats.connectionsForceClosed());
+            assertEquals(1, stats.requestsAbandoned());
+            assertTrue(baos.toString().contains("force-closed 1 connections with 1 requests unfinished"));
+        }
+    }
+
+    @Test
+    void parseArgsISetsTheAcceptorCount() {
+        server.parseArgs(new String[]{"-i", "4"});
+        assertEquals(4, server.getAcceptorCount());
+    }
+
+    @Test
+    void openListenersBindsEveryAcceptorToTheSamePort() throws IOException {
+        var listeners = Server.openListeners(0, 50, 2);
+        try {
+            assertEquals(2, listeners.size());
+            assertEquals(listeners.get(0).socket().getLocalPort(), listeners.get(1).socket().getLocalPort());
+        } finally {
+            for (var listener : listeners)
+                listener.close();
+        }
+    }
+
+    @Test
+    void multipleAcceptorsServeRequestsOnOnePort() throws IOException, InterruptedException {
+        server.parseArgs(new String[]{"-p", "0", "-i", "2"});
+        new Thread(server::handleIO).start();
+        while (server.getSocket() == null)
+            Thread.sleep(10);
+        var port = server.getSocket().getLocalPort();
+
+        try {
+            for (int i = 0; i < 8; i++) {
+                try (var client = new Socket("localhost", port)) {
+                    client.getOutputStream().write("GET /hello HTTP/1.1\r\nConnection: close\r\n\r\n".getBytes());
+                    assertTrue(new String(client.getInputStream().readAllBytes()).startsWith("HTTP/1.1 200 OK"));
+                }
+            }
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void unroutedPathFallsBackToNotFound() throws IOException, InterruptedException {
+        var response = new String(server.getResponse(new ByteArrayInputStream("GET /pingpong HTTP/1.1".getBytes())));
+        assertTrue(response.startsWith("HTTP/1.1 404 Not Found"));
+    }
+
     @Test
     void formPathReturnsFoo1Bar2() throws IOException, InterruptedException {
         var header = "GET /form?foo=1&bar=2 HTTP/1.1\r\n";
         var input = new ByteArrayInputStream(header.getBytes());
         var response = """
                 HTTP/1.1 200 OK\r
-                Content-Type: text/html
+                Content-Type: text/html\r
+                Content-Length: 50\r
                 Server: httpServer1.1\r
                 \r
                 <h2>GET Form</h2>
@@ -440,7 +1283,8 @@ class ServerTest {
         var input = new ByteArrayInputStream(header.getBytes());
         var response = """
                 HTTP/1.1 200 OK\r
-                Content-Type: text/html
+                Content-Type: text/html\r
+                Content-Length: 50\r
                 Server: httpServer1.1\r
                 \r
                 <h2>GET Form</h2>
@@ -457,7 +1301,8 @@ class ServerTest {
         var time = server.getCurrentTime();
         var response = """
                 HTTP/1.1 200 OK\r
-                Content-Type: text/html
+                Content-Type: text/html\r
+                Content-Length: 94\r
                 Server: httpServer1.1\r
                 \r
                 <h2>Ping</h2>
@@ -476,7 +1321,8 @@ class ServerTest {
         System.setOut(stdOut);
         var response = """
                 HTTP/1.1 200 OK\r
-                Content-Type: text/html
+                Content-Type: text/html\r
+                Content-Length: 94\r
                 Server: httpServer1.1\r
                 \r
                 <h2>Ping</h2>
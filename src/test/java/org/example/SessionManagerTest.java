@@ -0,0 +1,206 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionManagerTest {
+    private final MemorySessionStore store = new MemorySessionStore();
+
+    @Test
+    void startIssuesUnguessableIds() throws IOException {
+        var sessions = new SessionManager(store, 60_000, 100);
+        var first = sessions.start(null, new GuessingGame());
+        var second = sessions.start(null, new GuessingGame());
+
+        assertTrue(first.matches("[A-Za-z0-9_-]{22}"));
+        assertNotEquals(first, second);
+        assertEquals(2, sessions.size());
+    }
+
+    @Test
+    void getReturnsEachClientsOwnGame() throws IOException {
+        var sessions = new SessionManager(store, 60_000, 100);
+        var firstGame = new GuessingGame(10, 7);
+        var secondGame = new GuessingGame(20, 7);
+        var first = sessions.start(null, firstGame);
+        var second = sessions.start(null, secondGame);
+
+        assertSame(firstGame, sessions.get(first));
+        assertSame(secondGame, sessions.get(second));
+    }
+
+    @Test
+    void startReusesActiveSessionId() throws IOException {
+        var sessions = new SessionManager(store, 60_000, 100);
+        var id = sessions.start(null, new GuessingGame());
+        var newGame = new GuessingGame();
+
+        assertEquals(id, sessions.start(id, newGame));
+        assertSame(newGame, sessions.get(id));
+        assertEquals(1, sessions.size());
+    }
+
+    @Test
+    void startIgnoresUnknownClientIds() throws IOException {
+        var sessions = new SessionManager(store, 60_000, 100);
+        var id = sessions.start("AAAAAAAAAAAAAAAAAAAAAA", new GuessingGame());
+
+        assertNotEquals("AAAAAAAAAAAAAAAAAAAAAA", id);
+    }
+
+    @Test
+    void getRejectsMalformedIds() throws IOException {
+        var sessions = new SessionManager(store, 60_000, 100);
+
+        assertNull(sessions.get(null));
+        assertNull(sessions.get("../../etc/passwd"));
+        assertNull(sessions.get("unknown"));
+    }
+
+    @Test
+    void expiresSessionsAfterIdleTtl() throws IOException, InterruptedException {
+        var sessions = new SessionManager(store, 20, 100);
+        var id = sessions.start(null, new GuessingGame());
+        Thread.sleep(50);
+
+        assertNull(sessions.get(id));
+        assertEquals(0, sessions.size());
+        assertEquals(0, store.size());
+        assertEquals(1, sessions.getExpiredCount());
+    }
+
+    @Test
+    void sweepRemovesAbandonedSessions() throws IOException, InterruptedException {
+        var sessions = new SessionManager(store, 20, 100);
+        for (int i = 0; i < 10; i++)
+            sessions.start(null, new GuessingGame());
+        Thread.sleep(50);
+        sessions.sweep();
+
+        assertEquals(0, sessions.size());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void capsSessionCountByEvictingIdleSessions() throws IOException {
+        var sessions = new SessionManager(store, 60_000, 5);
+        String last = null;
+        for (int i = 0; i < 20; i++)
+            last = sessions.start(null, new GuessingGame());
+
+        assertEquals(5, sessions.size());
+        assertEquals(5, store.size());
+        assertEquals(15, sessions.getEvictedCount());
+        assertNotNull(sessions.get(last));
+    }
+
+    @Test
+    void evictsOlderSessionsBeforeRecentOnes() throws IOException, InterruptedException {
+        var sessions = new SessionManager(store, 60_000, 64);
+        for (int i = 0; i < 64; i++)
+            sessions.start(null, new GuessingGame());
+        Thread.sleep(20);
+
+        var recent = new ArrayList<String>();
+        for (int i = 0; i < 32; i++)
+            recent.add(sessions.start(null, new GuessingGame()));
+
+        assertEquals(64, sessions.size());
+        for (var id : recent)
+            assertNotNull(sessions.get(id));
+    }
+
+    @Test
+    void updateDoesNotLoseConcurrentGuessesOnTheSameSession(@TempDir Path directory) throws Exception {
+        var sessions = new SessionManager(new FileSessionStore(directory), 60_000, 100);
+        var id = sessions.start(null, new GuessingGame(50, 100));
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            var futures = new ArrayList<Future<String>>();
+            for (int i = 0; i < 40; i++)
+                futures.add(executor.submit(() -> sessions.update(id, game -> game.handleGuess(1))));
+            for (var future : futures)
+                assertNotNull(future.get());
+        }
+
+        assertEquals(60, sessions.get(id).getGuessesLeft());
+    }
+
+    @Test
+    void startWaitsForAnUpdateInProgressOnTheSameSession(@TempDir Path directory) throws Exception {
+        var sessions = new SessionManager(new FileSessionStore(directory), 60_000, 100);
+        var id = sessions.start(null, new GuessingGame(50, 7));
+        var updating = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        try (var executor = Executors.newFixedThreadPool(2)) {
+            var update = executor.submit(() -> sessions.update(id, game -> {
+                updating.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+                return game.handleGuess(1);
+            }));
+            updating.await();
+            var restart = executor.submit(() -> sessions.start(id, new GuessingGame(50, 3)));
+            Thread.sleep(50);
+            assertFalse(restart.isDone());
+
+            release.countDown();
+            update.get();
+            assertEquals(id, restart.get());
+        }
+
+        assertEquals(3, sessions.get(id).getGuessesLeft());
+    }
+
+    @Test
+    void updateReturnsNullForUnknownSessions() throws IOException {
+        var sessions = new SessionManager(store, 60_000, 100);
+        assertNull(sessions.update("missing", game -> game.handleGuess(1)));
+    }
+
+    @Test
+    void removeDeletesFromStore() throws IOException {
+        var sessions = new SessionManager(store, 60_000, 100);
+        var id = sessions.start(null, new GuessingGame());
+        sessions.remove(id);
+
+        assertNull(sessions.get(id));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void concurrentPlayersGetDistinctSessions() throws Exception {
+        var sessions = new SessionManager(store, 60_000, 10_000);
+        var ids = new HashSet<String>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var futures = new ArrayList<Future<String>>();
+            for (int i = 0; i < 1000; i++) {
+                futures.add(executor.submit(() -> {
+                    var id = sessions.start(null, new GuessingGame(50, 7));
+                    sessions.get(id).handleGuess(1);
+                    return id;
+                }));
+            }
+            for (var future : futures)
+                ids.add(future.get());
+        }
+
+        assertEquals(1000, ids.size());
+        assertEquals(1000, sessions.size());
+        for (var id : ids)
+            assertEquals(6, sessions.get(id).getGuessesLeft());
+    }
+}
@@ -0,0 +1,136 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StaticFileCacheTest {
+    @TempDir
+    Path directory;
+
+    private Path writeFile(String name, int size) throws IOException {
+        var file = directory.resolve(name);
+        Files.write(file, new byte[size]);
+        return file;
+    }
+
+    @Test
+    void getMissesBeforeLoad() throws IOException {
+        var cache = new StaticFileCache(1024, 1024, 1000);
+        assertNull(cache.get(writeFile("a.txt", 10)));
+    }
+
+    @Test
+    void getHitsAfterLoad() throws IOException {
+        var cache = new StaticFileCache(1024, 1024, 1000);
+        var file = writeFile("a.txt", 10);
+        cache.load(file, "Content-Type: text/plain\r\n", Files::readAllBytes);
+
+        var entry = cache.get(file);
+        assertEquals(10, entry.getContent().length);
+        assertEquals("Content-Type: text/plain\r\n", entry.getContentType());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void reloadReplacesTheEntryInTheAccessOrder() throws IOException {
+        var cache = new StaticFileCache(1024, 1024, 1000);
+        var file = writeFile("a.txt", 10);
+        for (int i = 0; i < 5; i++)
+            cache.load(file, "Content-Type: text/plain\r\n", Files::readAllBytes);
+
+        assertEquals(1, cache.getEntryCount());
+        assertEquals(1, cache.getIndexedCount());
+        assertEquals(10, cache.getCachedBytes());
+    }
+
+    @Test
+    void getNormalizesPaths() throws IOException {
+        var cache = new StaticFileCache(1024, 1024, 1000);
+        var file = writeFile("a.txt", 10);
+        cache.load(file, "Content-Type: text/plain\r\n", Files::readAllBytes);
+        assertNotNull(cache.get(directory.resolve("./sub/../a.txt")));
+    }
+
+    @Test
+    void loadSkipsFilesLargerThanMaxEntry() throws IOException {
+        var cache = new StaticFileCache(1024, 100, 1000);
+        var file = writeFile("big.bin", 101);
+        assertNull(cache.load(file, "Content-Type: application/octet-stream\r\n", Files::readAllBytes));
+        assertEquals(0, cache.getEntryCount());
+    }
+
+    @Test
+    void loadEvictsLeastRecentlyUsedBeyondMaxBytes() throws IOException {
+        var cache = new StaticFileCache(250, 100, 1000);
+        var a = writeFile("a.bin", 100);
+        var b = writeFile("b.bin", 100);
+        var c = writeFile("c.bin", 100);
+
+        cache.load(a, "", Files::readAllBytes);
+        cache.load(b, "", Files::readAllBytes);
+        cache.get(a);
+        cache.load(c, "", Files::readAllBytes);
+
+        assertNotNull(cache.get(a));
+        assertNull(cache.get(b));
+        assertNotNull(cache.get(c));
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(200, cache.getCachedBytes());
+    }
+
+    @Test
+    void evictsInAccessOrderAcrossManyEntries() throws IOException {
+        var cache = new StaticFileCache(1000, 100, 1000);
+        var files = new Path[20];
+        for (int i = 0; i < files.length; i++) {
+            files[i] = writeFile("f" + i + ".bin", 100);
+            cache.load(files[i], "", Files::readAllBytes);
+            cache.get(files[0]);
+        }
+
+        assertNotNull(cache.get(files[0]));
+        assertNull(cache.get(files[1]));
+        assertNotNull(cache.get(files[19]));
+        assertEquals(10, cache.getEntryCount());
+        assertEquals(10, cache.getEvictionCount());
+    }
+
+    @Test
+    void getInvalidatesModifiedFiles() throws IOException {
+        var cache = new StaticFileCache(1024, 1024, 0);
+        var file = writeFile("a.txt", 10);
+        cache.load(file, "", Files::readAllBytes);
+
+        Files.write(file, new byte[12]);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+
+        assertNull(cache.get(file));
+        assertEquals(0, cache.getCachedBytes());
+    }
+
+    @Test
+    void getInvalidatesDeletedFiles() throws IOException {
+        var cache = new StaticFileCache(1024, 1024, 0);
+        var file = writeFile("a.txt", 10);
+        cache.load(file, "", Files::readAllBytes);
+        Files.delete(file);
+        assertNull(cache.get(file));
+    }
+
+    @Test
+    void getSkipsRevalidationWithinInterval() throws IOException {
+        var cache = new StaticFileCache(1024, 1024, 60000);
+        var file = writeFile("a.txt", 10);
+        cache.load(file, "", Files::readAllBytes);
+        Files.delete(file);
+        assertNotNull(cache.get(file));
+    }
+}
@@ -0,0 +1,61 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TemplateCacheTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void compilesEachTemplateOnce() throws IOException {
+        var cache = new TemplateCache(0);
+        var file = directory.resolve("a.html");
+        Files.writeString(file, "<p>%s</p>");
+
+        var first = cache.get(file);
+        var second = cache.get(file);
+
+        assertSame(first, second);
+        assertEquals(1, cache.getLoadCount());
+    }
+
+    @Test
+    void reloadsWhenFileChanges() throws IOException {
+        var cache = new TemplateCache(0);
+        var file = directory.resolve("a.html");
+        Files.writeString(file, "<p>%s</p>");
+        cache.get(file);
+
+        Files.writeString(file, "<h1>%s</h1>");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+
+        assertEquals("<h1>x</h1>\n", new String(cache.get(file).render("x")));
+        assertEquals(2, cache.getLoadCount());
+    }
+
+    @Test
+    void skipsRevalidationWithinInterval() throws IOException {
+        var cache = new TemplateCache(60_000);
+        var file = directory.resolve("a.html");
+        Files.writeString(file, "<p>%s</p>");
+        cache.get(file);
+
+        Files.delete(file);
+
+        assertEquals("<p>x</p>\n", new String(cache.get(file).render("x")));
+    }
+
+    @Test
+    void missingTemplateThrows() {
+        var cache = new TemplateCache(0);
+        assertThrows(IOException.class, () -> cache.get(directory.resolve("missing.html")));
+    }
+}
@@ -0,0 +1,74 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TemplateTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void rendersLiteralsAndTextSlots() throws IOException {
+        var template = Template.compile("<li>foo: %s</li>\n<li>bar: %s</li>\n");
+
+        assertEquals(2, template.getSlotCount());
+        assertEquals("<li>foo: 1</li>\n<li>bar: two</li>\n", new String(template.render("1", "two")));
+    }
+
+    @Test
+    void rendersSameOutputAsFormatted() throws IOException {
+        var source = "<h2>Ping</h2>\n<li>start time: %s</li>\n<li>end time: %s</li>\n";
+        var template = Template.compile(source);
+
+        assertEquals(source.formatted("a", null), new String(template.render("a", null)));
+    }
+
+    @Test
+    void rendersNumberSlots() throws IOException {
+        var template = Template.compile("%d|%d|%d|%d");
+
+        assertEquals("0|42|-7|" + Long.MIN_VALUE, new String(template.render(0, 42L, -7, Long.MIN_VALUE)));
+    }
+
+    @Test
+    void numberSlotRejectsText() {
+        var template = Template.compile("%d");
+        assertThrows(IllegalArgumentException.class, () -> template.render("42"));
+    }
+
+    @Test
+    void escapedPercentIsLiteral() throws IOException {
+        assertEquals("100% sure", new String(Template.compile("%d%% sure").render(100)));
+    }
+
+    @Test
+    void rendersMultiByteCharacters() throws IOException {
+        assertEquals("héllo wörld", new String(Template.compile("héllo %s").render("wörld")));
+    }
+
+    @Test
+    void rejectsMalformedSlots() {
+        assertThrows(IllegalArgumentException.class, () -> Template.compile("50%"));
+        assertThrows(IllegalArgumentException.class, () -> Template.compile("%x"));
+    }
+
+    @Test
+    void rejectsWrongValueCount() {
+        var template = Template.compile("%s and %s");
+        assertThrows(IllegalArgumentException.class, () -> template.render("one"));
+    }
+
+    @Test
+    void loadTerminatesEveryLineWithNewline() throws IOException {
+        var file = directory.resolve("template.html");
+        Files.writeString(file, "<h2>%s</h2>\r\n<p>%s</p>");
+
+        assertEquals("<h2>a</h2>\n<p>b</p>\n", new String(Template.load(file).render("a", "b")));
+    }
+}
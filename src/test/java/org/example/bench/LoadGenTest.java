@@ -0,0 +1,70 @@
+package org.example.bench;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadGenTest {
+    @Test
+    void parseMixExpandsAliasesByWeight() {
+        assertEquals(List.of("/things/miata.txt", "/things/miata.txt", "/ping/1"), LoadGen.parseMix("static:2,/ping/1:1"));
+        assertEquals(List.of("/listing/things"), LoadGen.parseMix("listing"));
+    }
+
+    @Test
+    void parseMixRejectsUnknownTargets() {
+        assertThrows(IllegalArgumentException.class, () -> LoadGen.parseMix("nothing:3"));
+        assertThrows(IllegalArgumentException.class, () -> LoadGen.parseMix("static:0"));
+    }
+
+    @Test
+    void closedLoopDrivesAnInProcessServer() throws IOException, InterruptedException {
+        var loadGen = new LoadGen();
+        loadGen.parseArgs(new String[]{"-c", "4", "-d", "1", "-w", "0", "-x", "static:3,listing:1,guess:1,ping:1"});
+        var result = loadGen.run();
+
+        assertTrue(result.getRequestCount() > 0);
+        assertEquals(0, result.getErrorCount());
+        assertTrue(result.getBytesRead() > 0);
+        assertTrue(result.format().contains("closed loop, 4 connections"));
+    }
+
+    @Test
+    void openLoopHoldsTheConfiguredRateWithoutReusingConnections() throws IOException, InterruptedException {
+        var loadGen = new LoadGen();
+        loadGen.parseArgs(new String[]{"-m", "nio", "-c", "2", "-R", "200", "-d", "1", "-w", "0", "-k", "false", "-x", "index"});
+        var result = loadGen.run();
+
+        assertEquals(200, result.getRequestCount(), 10);
+        assertEquals(0, result.getErrorCount());
+        assertTrue(result.getLatency().getMax() >= result.getServiceTime().getMax());
+        assertTrue(result.format().contains("corrected for coordinated omission"));
+    }
+
+    @Test
+    void garbledStatusLinesCountAsErrors() throws IOException, InterruptedException {
+        try (var garbling = new ServerSocket(0)) {
+            var responder = new Thread(() -> {
+                while (!garbling.isClosed()) {
+                    try (var socket = garbling.accept()) {
+                        socket.getOutputStream().write("HTTP/1\r\n\r\n".getBytes());
+                    } catch (IOException ioe) {
+                        return;
+                    }
+                }
+            });
+            responder.start();
+
+            var loadGen = new LoadGen();
+            loadGen.parseArgs(new String[]{"-u", "127.0.0.1:" + garbling.getLocalPort(), "-c", "1", "-d", "1", "-w", "0", "-x", "index"});
+            var result = loadGen.run();
+
+            assertTrue(result.getRequestCount() > 1);
+            assertEquals(result.getRequestCount(), result.getErrorCount());
+        }
+    }
+}